@@ -0,0 +1,61 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.domain.service.CsvImportReport;
+import com.daniil.financemanager.domain.service.FileStorageService;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class CsvBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private FileStorageService storage;
+    private User user;
+    private User importer;
+    private Path csv;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storage = new FileStorageService();
+        Wallet wallet = WalletDataGenerator.generate("bench-csv-" + size, size,
+                new CategoryService(new InMemoryCategoryRepository()));
+        user = wallet.getUser();
+        csv = Files.createTempFile("bench-csv", ".csv");
+        storage.exportWalletToCSV(user, csv, null, null);
+    }
+
+    @Setup(Level.Invocation)
+    public void freshImporter() {
+        importer = new User(user.getLogin(), "bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public int exportCsv() {
+        return storage.exportWalletToCSV(user, OutputStream.nullOutputStream(), false, null, null);
+    }
+
+    @Benchmark
+    public CsvImportReport importCsv() {
+        return storage.importWalletFromCSV(importer, csv.toString());
+    }
+}
@@ -0,0 +1,65 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.domain.service.Durability;
+import com.daniil.financemanager.domain.service.FileStorageService;
+import com.daniil.financemanager.domain.service.SnapshotFormat;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import com.daniil.financemanager.metrics.OperationMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Saves per second with several users saving at once; GROUP should land between SYNC and NONE.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(8)
+@Fork(1)
+public class DurableSaveBenchmark {
+    @Param({"NONE", "GROUP", "SYNC"})
+    public Durability durability;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private final AtomicInteger nextUser = new AtomicInteger();
+    private FileStorageService storage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new FileStorageService(SnapshotFormat.BINARY, FileStorageService.DEFAULT_JOURNAL_COMPACTION_BYTES,
+                durability, new OperationMetrics());
+    }
+
+    @State(Scope.Thread)
+    public static class Saver {
+        User user;
+
+        @Setup(Level.Trial)
+        public void setUp(DurableSaveBenchmark benchmark) {
+            Wallet wallet = WalletDataGenerator.generate("bench-durable-" + benchmark.nextUser.getAndIncrement(),
+                    benchmark.size, new CategoryService(new InMemoryCategoryRepository()));
+            user = wallet.getUser();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(Path.of("data", user.getLogin() + SnapshotFormat.BINARY.getExtension()));
+            Files.deleteIfExists(Path.of("data", user.getLogin() + ".journal"));
+        }
+    }
+
+    @Benchmark
+    public void save(Saver saver) {
+        storage.saveUserData(saver.user);
+    }
+}
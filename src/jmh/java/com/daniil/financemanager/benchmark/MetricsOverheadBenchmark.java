@@ -0,0 +1,39 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.metrics.Operation;
+import com.daniil.financemanager.metrics.OperationMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// nanoTime() makes the same two clock reads as recordLatency(), so the difference is the cost of recording itself.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    private final OperationMetrics metrics = new OperationMetrics();
+
+    @Benchmark
+    public long nanoTime() {
+        return System.nanoTime() - System.nanoTime();
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        metrics.record(Operation.WALLET_ADD_EXPENSE, System.nanoTime());
+    }
+
+    @Benchmark
+    public void recordWithIo() {
+        metrics.record(Operation.STORAGE_SAVE, System.nanoTime(), 100, 0, 4_096);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordLatencyContended() {
+        metrics.record(Operation.WALLET_ADD_EXPENSE, System.nanoTime());
+    }
+}
@@ -0,0 +1,47 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.domain.model.Transaction;
+import com.daniil.financemanager.domain.model.TransactionType;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// doubleStreamSum is how totals were computed before amounts became fixed-point; exactSum is what replaced it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class MoneySumBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Wallet wallet;
+    private List<Double> amounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wallet = WalletDataGenerator.generate("bench-money", size, new CategoryService(new InMemoryCategoryRepository()));
+        amounts = wallet.getTransactions().stream()
+                .filter(t -> t.getType() == TransactionType.EXPENSE)
+                .map(Transaction::getAmount)
+                .map(amount -> amount.toBigDecimal().doubleValue())
+                .toList();
+    }
+
+    @Benchmark
+    public double doubleStreamSum() {
+        return amounts.stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    @Benchmark
+    public long exactSum() {
+        wallet.recalculateTotals();
+        return wallet.getTotalExpense().minorUnits();
+    }
+}
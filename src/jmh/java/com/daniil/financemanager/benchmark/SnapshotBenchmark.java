@@ -0,0 +1,64 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.domain.service.FileStorageService;
+import com.daniil.financemanager.domain.service.SnapshotFormat;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SnapshotBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"JSON", "BINARY"})
+    public SnapshotFormat format;
+
+    private FileStorageService storage;
+    private User user;
+    private User reader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new FileStorageService(format);
+        Wallet wallet = WalletDataGenerator.generate("bench-snapshot-" + size, size,
+                new CategoryService(new InMemoryCategoryRepository()));
+        user = wallet.getUser();
+        storage.saveUserData(user);
+    }
+
+    @Setup(Level.Invocation)
+    public void freshReader() {
+        reader = new User(user.getLogin(), "bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (SnapshotFormat each : SnapshotFormat.values()) {
+            Files.deleteIfExists(Path.of("data", user.getLogin() + each.getExtension()));
+        }
+        Files.deleteIfExists(Path.of("data", user.getLogin() + ".journal"));
+    }
+
+    @Benchmark
+    public void save() {
+        storage.saveUserData(user);
+    }
+
+    @Benchmark
+    public Wallet load() {
+        return storage.loadUserData(reader);
+    }
+}
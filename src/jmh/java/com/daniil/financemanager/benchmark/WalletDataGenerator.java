@@ -0,0 +1,60 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.TransactionType;
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.CategoryService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public final class WalletDataGenerator {
+    public static final List<String> EXPENSE_CATEGORIES = List.of(
+            "Food", "Transport", "Rent", "Utilities", "Health", "Entertainment", "Travel", "Education");
+    public static final List<String> INCOME_CATEGORIES = List.of("Salary", "Bonus", "Gift");
+    public static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    public static final int DAYS = 5 * 365;
+
+    private static final List<String> DESCRIPTIONS = List.of(
+            "", "groceries", "monthly pass", "dinner with friends", "pharmacy", "cinema", "hotel", "online course");
+    private static final long SEED = 42L;
+
+    private WalletDataGenerator() {
+    }
+
+    public static Wallet generate(String login, int size, CategoryService categoryService) {
+        Wallet wallet = new User(login, "bench").getWallet();
+        populate(wallet, size, categoryService);
+        return wallet;
+    }
+
+    // One in five rows is income, sized so the wallet stays in credit and no budget notices are printed.
+    public static void populate(Wallet wallet, int size, CategoryService categoryService) {
+        Category[] expense = resolve(EXPENSE_CATEGORIES, categoryService);
+        Category[] income = resolve(INCOME_CATEGORIES, categoryService);
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < size; i++) {
+            LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+            String description = DESCRIPTIONS.get(random.nextInt(DESCRIPTIONS.size()));
+            if (i % 5 == 0) {
+                Money amount = Money.ofMinor(random.nextInt(100_000, 500_000), 2);
+                wallet.addTransaction(TransactionType.INCOME, income[random.nextInt(income.length)], amount, description, date);
+            } else {
+                Money amount = Money.ofMinor(random.nextInt(100, 20_000), 2);
+                wallet.addTransaction(TransactionType.EXPENSE, expense[random.nextInt(expense.length)], amount, description, date);
+            }
+        }
+        wallet.recalculateTotals();
+    }
+
+    private static Category[] resolve(List<String> names, CategoryService categoryService) {
+        Category[] categories = new Category[names.size()];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = categoryService.getOrCreateCategory(names.get(i));
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,62 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.domain.service.WalletService;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryWalletRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class WalletMutationBenchmark {
+    private static final Money EXPENSE = Money.ofMinor(1250, 2);
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private WalletService walletService;
+    private CategoryService categoryService;
+    private Wallet wallet;
+    private Category food;
+    private boolean renamed;
+
+    // Rebuilt per iteration so appended rows from the previous iteration do not drift the wallet size.
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        walletService = new WalletService(walletRepository, false, new PrintStream(OutputStream.nullOutputStream()));
+        categoryService = new CategoryService(new InMemoryCategoryRepository());
+        wallet = WalletDataGenerator.generate("bench-mutation", size, categoryService);
+        walletRepository.save(wallet);
+        // Keeps the balance positive for the whole iteration so addExpense never formats overspending notices.
+        walletService.addIncome(wallet, Money.of(1_000_000_000), categoryService.getOrCreateCategory("Salary"), "opening balance");
+        food = categoryService.getOrCreateCategory("Food");
+        renamed = false;
+    }
+
+    @Benchmark
+    public void addExpense() {
+        walletService.addExpense(wallet, EXPENSE, food, "benchmark");
+    }
+
+    @Benchmark
+    public void updateCategory() {
+        if (renamed) {
+            categoryService.updateCategory("Groceries", "Food", wallet);
+        } else {
+            categoryService.updateCategory("Food", "Groceries", wallet);
+        }
+        renamed = !renamed;
+    }
+}
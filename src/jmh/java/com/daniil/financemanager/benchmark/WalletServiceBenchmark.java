@@ -0,0 +1,76 @@
+package com.daniil.financemanager.benchmark;
+
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.Transaction;
+import com.daniil.financemanager.domain.model.TransactionType;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.domain.service.WalletService;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryWalletRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class WalletServiceBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private WalletService walletService;
+    private Wallet wallet;
+    private LocalDate monthStart;
+    private LocalDate monthEnd;
+    private List<String> categories;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        walletService = new WalletService(walletRepository, false, new PrintStream(OutputStream.nullOutputStream()));
+        wallet = WalletDataGenerator.generate("bench-service", size, new CategoryService(new InMemoryCategoryRepository()));
+        walletRepository.save(wallet);
+        monthStart = WalletDataGenerator.FIRST_DAY.plusDays(WalletDataGenerator.DAYS / 2);
+        monthEnd = monthStart.plusDays(30);
+        categories = List.of("Food", "Transport", "Travel");
+    }
+
+    @Benchmark
+    public Money totals() {
+        return walletService.getTotalIncome(wallet).minus(walletService.getTotalExpense(wallet));
+    }
+
+    @Benchmark
+    public List<Transaction> transactionsByPeriod() {
+        return walletService.getTransactionsByPeriod(wallet, monthStart, monthEnd);
+    }
+
+    @Benchmark
+    public Money expenseByPeriodListSum() {
+        Money sum = Money.ZERO;
+        for (Transaction transaction : walletService.getTransactionsByPeriod(wallet, monthStart, monthEnd)) {
+            if (transaction.getType() == TransactionType.EXPENSE) {
+                sum = sum.plus(transaction.getAmount());
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Money expenseBetween() {
+        return walletService.getExpenseBetween(wallet, monthStart, monthEnd);
+    }
+
+    @Benchmark
+    public Money expenseByCategories() {
+        return walletService.getExpenseByCategories(wallet, categories);
+    }
+}
@@ -5,26 +5,114 @@ import com.daniil.financemanager.domain.repository.CategoryRepository;
 import com.daniil.financemanager.domain.repository.UserRepository;
 import com.daniil.financemanager.domain.repository.WalletRepository;
 import com.daniil.financemanager.domain.service.*;
+import com.daniil.financemanager.infrastructure.repository.ConcurrentCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.ConcurrentWalletRepository;
+import com.daniil.financemanager.infrastructure.repository.FileUserRepository;
 import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
-import com.daniil.financemanager.infrastructure.repository.InMemoryUserRepository;
 import com.daniil.financemanager.infrastructure.repository.InMemoryWalletRepository;
+import com.daniil.financemanager.metrics.FlightRecording;
+import com.daniil.financemanager.metrics.OperationMetrics;
+import com.daniil.financemanager.server.FinanceManagerServer;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Console;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
 
 public class Main {
-    public static void main(String[] args) {
-        WalletRepository walletRepository = new InMemoryWalletRepository();
-        WalletService walletService = new WalletService(walletRepository);
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 1 && args[0].equals("--jfr")) {
+            FlightRecording.start(Path.of(args[1]));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        boolean serverMode = args.length > 0 && args[0].equals("--server");
+        boolean batchMode = args.length > 0 && args[0].equals("--batch");
+        PrintStream out = batchMode
+                ? new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 64 * 1024), false, StandardCharsets.UTF_8)
+                : System.out;
+
+        OperationMetrics metrics = new OperationMetrics();
+        WalletRepository walletRepository = serverMode ? new ConcurrentWalletRepository() : new InMemoryWalletRepository();
+        WalletService walletService = new WalletService(walletRepository, Boolean.getBoolean("financemanager.verifyTotals"),
+                serverMode ? new PrintStream(OutputStream.nullOutputStream()) : out, metrics);
 
-        UserRepository userRepository = new InMemoryUserRepository();
+        UserRepository userRepository = new FileUserRepository();
         UserService userService = new UserService(userRepository, walletRepository);
 
-        CategoryRepository categoryRepository = new InMemoryCategoryRepository();
-        CategoryService categoryService = new CategoryService(categoryRepository);
+        CategoryRepository categoryRepository = serverMode ? new ConcurrentCategoryRepository() : new InMemoryCategoryRepository();
+        CategoryService categoryService = new CategoryService(categoryRepository, metrics);
 
-        BudgetService budgetService = new BudgetService(walletRepository, categoryService);
+        BudgetService budgetService = new BudgetService(walletRepository, categoryService, metrics);
 
-        FileStorageService fileStorageService = new FileStorageService();
+        FileStorageService fileStorageService = new FileStorageService(
+                SnapshotFormat.valueOf(System.getProperty("financemanager.snapshotFormat", "JSON").toUpperCase()),
+                FileStorageService.DEFAULT_JOURNAL_COMPACTION_BYTES,
+                Durability.valueOf(System.getProperty("financemanager.durability", "GROUP").toUpperCase()), metrics);
 
-        FinanceManagerCLI cli = new FinanceManagerCLI(userService, walletService, budgetService, categoryService, fileStorageService);
+        if (serverMode) {
+            FinanceManagerServer server = new FinanceManagerServer(userService, walletService, budgetService,
+                    categoryService, fileStorageService, FinanceManagerServer.parseAddress(args.length > 1 ? args[1] : null));
+            System.out.println("Finance Manager server listening on " + server.start());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.err.println("Error stopping server: " + e.getMessage());
+                }
+            }));
+            server.join();
+            return;
+        }
+
+        PersistenceScheduler persistence = new PersistenceScheduler(fileStorageService,
+                Duration.ofMillis(Long.getLong("financemanager.flushIntervalMillis",
+                        PersistenceScheduler.DEFAULT_FLUSH_INTERVAL.toMillis())),
+                Integer.getInteger("financemanager.flushThreshold", PersistenceScheduler.DEFAULT_FLUSH_THRESHOLD),
+                metrics);
+        persistence.registerShutdownHook();
+        FinanceManagerCLI cli = new FinanceManagerCLI(userService, walletService, budgetService, categoryService,
+                fileStorageService, metrics, persistence);
+        if (batchMode) {
+            String script = args.length > 1 ? args[1] : "-";
+            try (BufferedReader in = script.equals("-")
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(Path.of(script))) {
+                int failed = cli.runBatch(in, out);
+                System.exit(failed == 0 ? 0 : 1);
+            }
+        }
+        if (args.length > 0) {
+            String login = System.getenv("FINANCE_MANAGER_USER");
+            int commandStart = 0;
+            if (args[0].equals("--user") && args.length > 1) {
+                login = args[1];
+                commandStart = 2;
+            }
+            System.exit(cli.runCommand(login, password(login), Arrays.asList(args).subList(commandStart, args.length),
+                    out, System.err));
+        }
         cli.run();
     }
+
+    // Scripts pass the password through the environment; a terminal user is asked for it without echo.
+    private static String password(String login) {
+        String password = System.getenv("FINANCE_MANAGER_PASSWORD");
+        Console console = System.console();
+        if (password == null && login != null && console != null) {
+            char[] typed = console.readPassword("Password for %s: ", login);
+            return typed == null ? null : new String(typed);
+        }
+        return password;
+    }
 }
@@ -0,0 +1,467 @@
+package com.daniil.financemanager.cli;
+
+import com.daniil.financemanager.domain.model.*;
+import com.daniil.financemanager.domain.service.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class CommandInterpreter {
+    public static final List<String> HELP = List.of(
+            "signup <login> <password>",
+            "login <login> <password>",
+            "logout",
+            "add_income <amount> <category> [description]",
+            "add_expense <amount> <category> [description]",
+            "show_balance",
+            "show_budget",
+            "show_transactions [<start> <end>]",
+            "show_totals <start> <end> [category]",
+            "add_category <name>",
+            "update_category <old> <new>",
+            "delete_category <name>",
+            "set_budget <category> <limit> [daily|weekly|monthly|<days>d[@<start>]]",
+            "update_budget <category> <limit> [daily|weekly|monthly|<days>d[@<start>]]",
+            "stats_categories <category>[,<category>...]",
+            "stats_months [<from yyyy-MM> <to yyyy-MM>]",
+            "export_csv [<path>]",
+            "import_csv <path>",
+            "save",
+            "ping",
+            "help",
+            "quit");
+
+    private final UserService userService;
+    private final WalletService walletService;
+    private final BudgetService budgetService;
+    private final CategoryService categoryService;
+    private final FileStorageService fileStorageService;
+    private final Function<User, Wallet> walletOpener;
+    private final Function<User, WalletSummary> summaryLoader;
+    private final boolean journalEachChange;
+    private final Set<User> unsavedUsers;
+    private User currentUser;
+    private Wallet currentWallet;
+    private WalletSummary currentSummary;
+    private boolean quitRequested;
+
+    public CommandInterpreter(UserService userService, WalletService walletService,
+                              BudgetService budgetService, CategoryService categoryService,
+                              FileStorageService fileStorageService, Function<User, Wallet> walletOpener,
+                              boolean journalEachChange) {
+        this(userService, walletService, budgetService, categoryService, fileStorageService,
+                walletOpener, null, journalEachChange);
+    }
+
+    public CommandInterpreter(UserService userService, WalletService walletService,
+                              BudgetService budgetService, CategoryService categoryService,
+                              FileStorageService fileStorageService, Function<User, Wallet> walletOpener,
+                              Function<User, WalletSummary> summaryLoader, boolean journalEachChange) {
+        this.userService = userService;
+        this.walletService = walletService;
+        this.budgetService = budgetService;
+        this.categoryService = categoryService;
+        this.fileStorageService = fileStorageService;
+        this.walletOpener = walletOpener;
+        this.summaryLoader = summaryLoader;
+        this.journalEachChange = journalEachChange;
+        this.unsavedUsers = new LinkedHashSet<>();
+    }
+
+    public List<String> execute(String line) {
+        return execute(tokenize(line));
+    }
+
+    public List<String> execute(List<String> args) {
+        if (args.isEmpty()) {
+            return List.of();
+        }
+
+        String command = args.getFirst().toLowerCase(Locale.ROOT);
+        return switch (command) {
+            case "signup" -> signUp(args);
+            case "login" -> login(args);
+            case "logout" -> logout();
+            case "add_income" -> addTransaction(args, TransactionType.INCOME);
+            case "add_expense" -> addTransaction(args, TransactionType.EXPENSE);
+            case "show_balance" -> showBalance();
+            case "show_budget" -> showBudget();
+            case "show_transactions" -> showTransactions(args);
+            case "show_totals" -> showTotals(args);
+            case "add_category" -> addCategory(args);
+            case "update_category" -> updateCategory(args);
+            case "delete_category" -> deleteCategory(args);
+            case "set_budget", "update_budget" -> setBudget(args, command.equals("update_budget"));
+            case "stats_categories" -> statsCategories(args);
+            case "stats_months" -> statsMonths(args);
+            case "export_csv" -> exportCsv(args);
+            case "import_csv" -> importCsv(args);
+            case "save" -> save();
+            case "ping" -> List.of();
+            case "help" -> HELP;
+            case "quit", "exit" -> {
+                quitRequested = true;
+                yield List.of();
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        };
+    }
+
+    public boolean isQuitRequested() {
+        return quitRequested;
+    }
+
+    public void actAs(User user) {
+        currentUser = user;
+        currentWallet = null;
+        currentSummary = null;
+    }
+
+    public int saveDeferredChanges() {
+        int saved = 0;
+        for (User user : unsavedUsers) {
+            Lock lock = user.getWallet().getLock().writeLock();
+            lock.lock();
+            try {
+                fileStorageService.saveUserData(user);
+                saved++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        unsavedUsers.clear();
+        return saved;
+    }
+
+    private List<String> signUp(List<String> args) {
+        requireArgs(args, 2, "signup <login> <password>");
+        userService.signUp(args.get(1), args.get(2));
+        return List.of();
+    }
+
+    private List<String> login(List<String> args) {
+        requireArgs(args, 2, "login <login> <password>");
+        if (!userService.signIn(args.get(1), args.get(2))) {
+            throw new IllegalArgumentException("Invalid login or password.");
+        }
+        actAs(userService.findUserByLogin(args.get(1)));
+        return List.of();
+    }
+
+    private List<String> logout() {
+        actAs(null);
+        return List.of();
+    }
+
+    private List<String> addTransaction(List<String> args, TransactionType type) {
+        Wallet wallet = requireWallet();
+        requireArgs(args, 2, args.getFirst() + " <amount> <category> [description]");
+        Money amount = Money.parse(args.get(1));
+        Category category = categoryService.getOrCreateCategory(args.get(2));
+        String description = String.join(" ", args.subList(3, args.size()));
+
+        return withLock(wallet.getLock().writeLock(), () -> {
+            if (type == TransactionType.INCOME) {
+                walletService.addIncome(wallet, amount, category, description);
+            } else {
+                walletService.addExpense(wallet, amount, category, description);
+            }
+            if (journalEachChange) {
+                fileStorageService.appendTransaction(currentUser, wallet.getTransactions().getLast());
+            } else {
+                unsavedUsers.add(currentUser);
+            }
+            return List.of();
+        });
+    }
+
+    private List<String> showBalance() {
+        WalletSummary summary = loadedSummary();
+        if (summary != null) {
+            return List.of(
+                    "income " + summary.getTotalIncome(),
+                    "expense " + summary.getTotalExpense(),
+                    "balance " + summary.getBalance());
+        }
+
+        Wallet wallet = requireWallet();
+        // One hold across both reads so the totals come from the same instant.
+        return withLock(walletService.totalsLock(wallet), () -> {
+            Money income = walletService.getTotalIncome(wallet);
+            Money expense = walletService.getTotalExpense(wallet);
+            return List.of(
+                    "income " + income,
+                    "expense " + expense,
+                    "balance " + income.minus(expense));
+        });
+    }
+
+    private List<String> showBudget() {
+        WalletSummary summary = loadedSummary();
+        if (summary != null) {
+            return formatBudgets(summary.getBudgets());
+        }
+
+        Wallet wallet = requireWallet();
+        return withLock(wallet.getLock().readLock(), () -> formatBudgets(wallet.getBudgets()));
+    }
+
+    private static List<String> formatBudgets(Map<Category, Budget> budgets) {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Category, Budget> entry : budgets.entrySet()) {
+            Budget budget = entry.getValue();
+            lines.add(String.join("\t", entry.getKey().getName(), budget.getLimit().toString(),
+                    budget.getSpent().toString(), budget.getRemaining().toString(), budget.getPeriod().toString()));
+        }
+        return lines;
+    }
+
+    private List<String> showTransactions(List<String> args) {
+        Wallet wallet = requireWallet();
+        List<Transaction> transactions;
+        if (args.size() == 3) {
+            transactions = walletService.getTransactionsByPeriod(
+                    wallet, LocalDate.parse(args.get(1)), LocalDate.parse(args.get(2)));
+        } else if (args.size() == 1) {
+            transactions = withLock(wallet.getLock().readLock(), () -> new ArrayList<>(wallet.getTransactions()));
+        } else {
+            throw new IllegalArgumentException("Usage: show_transactions [<start> <end>]");
+        }
+
+        List<String> lines = new ArrayList<>(transactions.size());
+        for (Transaction t : transactions) {
+            lines.add(String.join("\t", t.getType().name(),
+                    t.getCategory() == null ? "" : t.getCategory().getName(),
+                    t.getAmount().toString(), t.getDescription(), t.getDate().toString()));
+        }
+        return lines;
+    }
+
+    private List<String> showTotals(List<String> args) {
+        Wallet wallet = requireWallet();
+        requireArgs(args, 2, "show_totals <start> <end> [category]");
+        LocalDate start = LocalDate.parse(args.get(1));
+        LocalDate end = LocalDate.parse(args.get(2));
+        if (args.size() > 3) {
+            Category category = new Category(String.join(" ", args.subList(3, args.size())));
+            return List.of("expense " + walletService.getExpenseBetween(wallet, category, start, end));
+        }
+        return withLock(wallet.getLock().readLock(), () -> {
+            Money income = walletService.getIncomeBetween(wallet, start, end);
+            Money expense = walletService.getExpenseBetween(wallet, start, end);
+            return List.of(
+                    "income " + income,
+                    "expense " + expense,
+                    "balance " + income.minus(expense));
+        });
+    }
+
+    private List<String> addCategory(List<String> args) {
+        requireUser();
+        requireArgs(args, 1, "add_category <name>");
+        categoryService.getOrCreateCategory(args.get(1));
+        return List.of();
+    }
+
+    private List<String> updateCategory(List<String> args) {
+        Wallet wallet = requireWallet();
+        requireArgs(args, 2, "update_category <old> <new>");
+        return withLock(wallet.getLock().writeLock(), () -> {
+            categoryService.updateCategory(args.get(1), args.get(2), wallet);
+            if (journalEachChange) {
+                fileStorageService.appendCategoryRename(currentUser, args.get(1), args.get(2).trim());
+            } else {
+                unsavedUsers.add(currentUser);
+            }
+            return List.of();
+        });
+    }
+
+    private List<String> deleteCategory(List<String> args) {
+        requireUser();
+        requireArgs(args, 1, "delete_category <name>");
+        categoryService.deleteCategory(args.get(1));
+        return List.of();
+    }
+
+    private List<String> setBudget(List<String> args, boolean update) {
+        Wallet wallet = requireWallet();
+        requireArgs(args, 2, args.getFirst() + " <category> <limit> [period]");
+        Money limit = Money.parse(args.get(2));
+        BudgetPeriod period = args.size() > 3 ? BudgetPeriod.parse(args.get(3)) : null;
+        return withLock(wallet.getLock().writeLock(), () -> {
+            if (update) {
+                budgetService.updateBudget(currentUser, args.get(1), limit, period);
+            } else {
+                budgetService.setBudget(currentUser, args.get(1), limit, period == null ? BudgetPeriod.LIFETIME : period);
+            }
+            if (journalEachChange) {
+                Category category = categoryService.getOrCreateCategory(args.get(1));
+                fileStorageService.appendBudget(currentUser, wallet.getBudgets().get(category));
+            } else {
+                unsavedUsers.add(currentUser);
+            }
+            return List.of();
+        });
+    }
+
+    private List<String> statsCategories(List<String> args) {
+        requireArgs(args, 1, "stats_categories <category>[,<category>...]");
+        List<String> categories = Arrays.stream(String.join(" ", args.subList(1, args.size())).split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+        WalletSummary summary = loadedSummary();
+        if (summary != null) {
+            RollupCube rollups = summary.getRollups();
+            return List.of("income " + rollups.sum(TransactionType.INCOME, categories),
+                    "expense " + rollups.sum(TransactionType.EXPENSE, categories));
+        }
+
+        Wallet wallet = requireWallet();
+        Money income = walletService.getIncomeByCategories(wallet, categories);
+        Money expense = walletService.getExpenseByCategories(wallet, categories);
+        return List.of("income " + income, "expense " + expense);
+    }
+
+    private List<String> statsMonths(List<String> args) {
+        YearMonth from = args.size() > 2 ? YearMonth.parse(args.get(1)) : null;
+        YearMonth to = args.size() > 2 ? YearMonth.parse(args.get(2)) : null;
+        WalletSummary summary = loadedSummary();
+        RollupCube rollups = summary != null ? summary.getRollups() : walletService.getRollups(requireWallet());
+
+        List<String> lines = new ArrayList<>();
+        for (YearMonth month : rollups.months()) {
+            if ((from == null || !month.isBefore(from)) && (to == null || !month.isAfter(to))) {
+                lines.add(String.join("\t", month.toString(),
+                        "income " + rollups.sum(TransactionType.INCOME, month),
+                        "expense " + rollups.sum(TransactionType.EXPENSE, month),
+                        "rows " + (rollups.count(TransactionType.INCOME, month) + rollups.count(TransactionType.EXPENSE, month))));
+            }
+        }
+        return lines;
+    }
+
+    private List<String> exportCsv(List<String> args) {
+        Wallet wallet = requireWallet();
+        int rows = withLock(wallet.getLock().readLock(), () -> args.size() > 1
+                ? fileStorageService.exportWalletToCSV(currentUser, Path.of(args.get(1)), null, null)
+                : fileStorageService.exportWalletToCSV(currentUser));
+        return List.of("rows " + rows);
+    }
+
+    private List<String> importCsv(List<String> args) {
+        Wallet wallet = requireWallet();
+        requireArgs(args, 1, "import_csv <path>");
+        CsvImportReport report = withLock(wallet.getLock().writeLock(), () -> {
+            CsvImportReport result = fileStorageService.importWalletFromCSV(currentUser, args.get(1));
+            if (journalEachChange) {
+                fileStorageService.saveUserData(currentUser);
+            } else {
+                unsavedUsers.add(currentUser);
+            }
+            return result;
+        });
+        return List.of("accepted " + report.getAcceptedRows(), "rejected " + report.getRejectedRows());
+    }
+
+    private List<String> save() {
+        Wallet wallet = requireWallet();
+        return withLock(wallet.getLock().writeLock(), () -> {
+            fileStorageService.saveUserData(currentUser);
+            unsavedUsers.remove(currentUser);
+            return List.of();
+        });
+    }
+
+    private Wallet requireWallet() {
+        requireUser();
+        if (currentWallet == null) {
+            currentWallet = walletOpener.apply(currentUser);
+            currentSummary = null;
+        }
+        return currentWallet;
+    }
+
+    // Read-only commands answer from the summary until something needs the full wallet.
+    private WalletSummary loadedSummary() {
+        requireUser();
+        if (currentWallet != null || summaryLoader == null) {
+            return null;
+        }
+        if (currentSummary == null) {
+            currentSummary = summaryLoader.apply(currentUser);
+        }
+        return currentSummary;
+    }
+
+    private void requireUser() {
+        if (currentUser == null) {
+            throw new IllegalStateException("You must be logged in to perform this action.");
+        }
+    }
+
+    private static void requireArgs(List<String> args, int count, String usage) {
+        if (args.size() <= count) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+
+    private static <T> T withLock(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inToken = false;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '\\' && i + 1 < line.length()) {
+                    current.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote.");
+        }
+        if (inToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
@@ -2,11 +2,21 @@ package com.daniil.financemanager.cli;
 
 import com.daniil.financemanager.domain.model.*;
 import com.daniil.financemanager.domain.service.*;
-
+import com.daniil.financemanager.metrics.OperationMetrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.stream.Collectors;
@@ -17,21 +27,105 @@ public class FinanceManagerCLI {
     private final BudgetService budgetService;
     private final CategoryService categoryService;
     private final FileStorageService fileStorageService;
+    private final OperationMetrics metrics;
+    private final PersistenceScheduler persistence;
     private final Scanner scanner;
     private User currentUser;
     private Wallet currentWallet;
+    private WalletSummary currentSummary;
 
     public FinanceManagerCLI(UserService userService, WalletService walletService,
                              BudgetService budgetService, CategoryService categoryService,
                              FileStorageService fileStorageService) {
+        this(userService, walletService, budgetService, categoryService, fileStorageService, new OperationMetrics());
+    }
+
+    public FinanceManagerCLI(UserService userService, WalletService walletService,
+                             BudgetService budgetService, CategoryService categoryService,
+                             FileStorageService fileStorageService, OperationMetrics metrics) {
+        this(userService, walletService, budgetService, categoryService, fileStorageService, metrics,
+                new PersistenceScheduler(fileStorageService, PersistenceScheduler.DEFAULT_FLUSH_INTERVAL,
+                        PersistenceScheduler.DEFAULT_FLUSH_THRESHOLD, metrics));
+    }
+
+    public FinanceManagerCLI(UserService userService, WalletService walletService,
+                             BudgetService budgetService, CategoryService categoryService,
+                             FileStorageService fileStorageService, OperationMetrics metrics,
+                             PersistenceScheduler persistence) {
         this.userService = userService;
         this.walletService = walletService;
         this.budgetService = budgetService;
         this.categoryService = categoryService;
         this.fileStorageService = fileStorageService;
+        this.metrics = metrics;
+        this.persistence = persistence;
         this.scanner = new Scanner(System.in);
     }
 
+    public int runBatch(BufferedReader script, PrintStream out) throws IOException {
+        Map<String, Wallet> openWallets = new HashMap<>();
+        CommandInterpreter interpreter = new CommandInterpreter(userService, walletService, budgetService,
+                categoryService, fileStorageService,
+                user -> openWallets.computeIfAbsent(user.getLogin(), login -> fileStorageService.loadUserData(user)),
+                false);
+
+        long started = System.nanoTime();
+        int commands = 0;
+        int failed = 0;
+        int lineNumber = 0;
+        String line;
+        while (!interpreter.isQuitRequested() && (line = script.readLine()) != null) {
+            lineNumber++;
+            String command = line.trim();
+            if (command.isEmpty() || command.startsWith("#")) {
+                continue;
+            }
+
+            commands++;
+            try {
+                for (String output : interpreter.execute(command)) {
+                    out.println(output);
+                }
+            } catch (RuntimeException e) {
+                failed++;
+                out.println("Error (line " + lineNumber + "): " + e.getMessage());
+            }
+        }
+        int saved = interpreter.saveDeferredChanges();
+
+        long elapsed = System.nanoTime() - started;
+        out.printf(Locale.ROOT, "Batch finished: %d commands (%d failed) in %.1f ms, %.0f commands/s, %d wallet(s) saved.%n",
+                commands, failed, elapsed / 1e6, elapsed == 0 ? 0.0 : commands * 1e9 / elapsed, saved);
+        out.flush();
+        return failed;
+    }
+
+    public int runCommand(String login, String password, List<String> command, PrintStream out, PrintStream err) {
+        CommandInterpreter interpreter = new CommandInterpreter(userService, walletService, budgetService,
+                categoryService, fileStorageService, fileStorageService::loadUserData,
+                fileStorageService::loadWalletSummary, true);
+        try {
+            if (login != null) {
+                if (password == null) {
+                    throw new IllegalArgumentException("A password is required to act as " + login
+                            + " (set FINANCE_MANAGER_PASSWORD).");
+                }
+                if (!userService.signIn(login, password)) {
+                    throw new IllegalArgumentException("Invalid login or password.");
+                }
+                interpreter.actAs(userService.findUserByLogin(login));
+            }
+            for (String line : interpreter.execute(command)) {
+                out.println(line);
+            }
+            out.flush();
+            return 0;
+        } catch (RuntimeException e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
     public void run() {
         System.out.println("Welcome to Finance Manager CLI. Type 'help' for commands.");
         boolean running = true;
@@ -59,6 +153,7 @@ public class FinanceManagerCLI {
                     case "stats_categories" -> handleStatsCategories();
                     case "export_csv" -> handleExportCSV();
                     case "import_csv" -> handleImportCSV();
+                    case "stats" -> handleStats();
                     case "help" -> showHelp();
                     case "exit" -> {
                         handleExit();
@@ -92,8 +187,11 @@ public class FinanceManagerCLI {
         String password = scanner.nextLine().trim();
         boolean success = userService.signIn(login, password);
         if (success) {
+            // A re-login reads the files, so they must hold every change made before it.
+            persistence.flush();
             currentUser = userService.findUserByLogin(login);
-            currentWallet = fileStorageService.loadUserData(currentUser);
+            currentWallet = null;
+            currentSummary = fileStorageService.loadWalletSummary(currentUser);
             System.out.println("Logged in successfully.");
         } else {
             System.out.println("Invalid login or password.");
@@ -106,14 +204,15 @@ public class FinanceManagerCLI {
         }
 
         System.out.print("Enter amount: ");
-        double amount = Double.parseDouble(scanner.nextLine());
+        Money amount = Money.parse(scanner.nextLine());
         System.out.print("Enter category: ");
         String categoryName = scanner.nextLine().trim();
         System.out.print("Enter description: ");
         String description = scanner.nextLine().trim();
 
         Category category = categoryService.getOrCreateCategory(categoryName);
-        walletService.addIncome(currentWallet, amount, category, description);
+        walletService.addIncome(requireWallet(), amount, category, description);
+        persistence.markDirty(currentUser);
         System.out.println("Income added.");
     }
 
@@ -123,14 +222,15 @@ public class FinanceManagerCLI {
         }
 
         System.out.print("Enter amount: ");
-        double amount = Double.parseDouble(scanner.nextLine());
+        Money amount = Money.parse(scanner.nextLine());
         System.out.print("Enter category: ");
         String categoryName = scanner.nextLine().trim();
         System.out.print("Enter description: ");
         String description = scanner.nextLine().trim();
 
         Category category = categoryService.getOrCreateCategory(categoryName);
-        walletService.addExpense(currentWallet, amount, category, description);
+        walletService.addExpense(requireWallet(), amount, category, description);
+        persistence.markDirty(currentUser);
         System.out.println("Expense added.");
     }
 
@@ -139,10 +239,17 @@ public class FinanceManagerCLI {
             return;
         }
 
-        double totalIncome = walletService.getTotalIncome(currentWallet);
-        double totalExpense = walletService.getTotalExpense(currentWallet);
-        System.out.printf("Total Income: %.2f\nTotal Expense: %.2f\nBalance: %.2f\n",
-                totalIncome, totalExpense, totalIncome - totalExpense);
+        Money totalIncome;
+        Money totalExpense;
+        if (currentWallet == null) {
+            totalIncome = currentSummary.getTotalIncome();
+            totalExpense = currentSummary.getTotalExpense();
+        } else {
+            totalIncome = walletService.getTotalIncome(currentWallet);
+            totalExpense = walletService.getTotalExpense(currentWallet);
+        }
+        System.out.printf("Total Income: %s\nTotal Expense: %s\nBalance: %s\n",
+                totalIncome, totalExpense, totalIncome.minus(totalExpense));
     }
 
     private void handleStatsCategories() {
@@ -166,12 +273,12 @@ public class FinanceManagerCLI {
             return;
         }
 
-        double income = walletService.getIncomeByCategories(currentWallet, categories);
-        double expense = walletService.getExpenseByCategories(currentWallet, categories);
-        if (income == 0 && expense == 0) {
+        Money income = walletService.getIncomeByCategories(requireWallet(), categories);
+        Money expense = walletService.getExpenseByCategories(requireWallet(), categories);
+        if (income.signum() == 0 && expense.signum() == 0) {
             System.out.println("No data for selected categories.");
         } else {
-            System.out.printf("Income: %.2f\nExpense: %.2f\n", income, expense);
+            System.out.printf("Income: %s\nExpense: %s\n", income, expense);
         }
     }
 
@@ -180,16 +287,19 @@ public class FinanceManagerCLI {
             return;
         }
 
-        Map<Category, Budget> budgets = currentWallet.getBudgets();
+        Map<Category, Budget> budgets = currentWallet == null ? currentSummary.getBudgets() : currentWallet.getBudgets();
         if (budgets.isEmpty()) {
             System.out.println("No budgets set.");
             return;
         }
         System.out.println("Budgets:");
+        LocalDate today = LocalDate.now();
         budgets.forEach((category, budget) -> {
-            double remaining = budget.getLimit() - budget.getSpent();
-            System.out.printf("%s: Limit %.2f, Spent %.2f, Remaining %.2f\n",
-                    category.getName(), budget.getLimit(), budget.getSpent(), remaining);
+            BudgetPeriod period = budget.getPeriod();
+            String window = period.isLifetime() ? "" : String.format(" (%s, %s to %s)",
+                    period, period.windowStart(today), period.windowEnd(today));
+            System.out.printf("%s%s: Limit %s, Spent %s, Remaining %s\n",
+                    category.getName(), window, budget.getLimit(), budget.getSpent(), budget.getRemaining());
         });
     }
 
@@ -201,6 +311,7 @@ public class FinanceManagerCLI {
         System.out.print("Filter by date? (yyyy-MM-dd yyyy-MM-dd) or enter to skip: ");
         String input = scanner.nextLine().trim();
         List<Transaction> transactions;
+        String totals = null;
 
         if (!input.isEmpty()) {
             String[] dates = input.split("\\s+");
@@ -216,13 +327,16 @@ public class FinanceManagerCLI {
                     System.out.println("End date cannot be before start date.");
                     return;
                 }
-                transactions = walletService.getTransactionsByPeriod(currentWallet, start, end);
+                Wallet wallet = requireWallet();
+                transactions = walletService.getTransactionsInRange(wallet, start, end);
+                totals = String.format("Income: %s, Expense: %s", walletService.getIncomeBetween(wallet, start, end),
+                        walletService.getExpenseBetween(wallet, start, end));
             } catch (Exception e) {
                 System.out.println("Invalid date format. Please use yyyy-MM-dd.");
                 return;
             }
         } else {
-            transactions = currentWallet.getTransactions();
+            transactions = requireWallet().getTransactions();
         }
 
         if (transactions.isEmpty()) {
@@ -230,8 +344,11 @@ public class FinanceManagerCLI {
             return;
         }
 
-        transactions.forEach(t -> System.out.printf("%s | %s | %.2f | %s | %s\n",
+        transactions.forEach(t -> System.out.printf("%s | %s | %s | %s | %s\n",
                 t.getType(), t.getCategory().getName(), t.getAmount(), t.getDescription(), t.getDate()));
+        if (totals != null) {
+            System.out.println(totals);
+        }
     }
 
 
@@ -255,7 +372,8 @@ public class FinanceManagerCLI {
         String oldName = scanner.nextLine().trim();
         System.out.print("Enter new category name: ");
         String newName = scanner.nextLine().trim();
-        categoryService.updateCategory(oldName, newName, currentWallet);
+        categoryService.updateCategory(oldName, newName, requireWallet());
+        persistence.markDirty(currentUser);
         System.out.println("Category updated.");
     }
 
@@ -273,28 +391,33 @@ public class FinanceManagerCLI {
     private void handleSetBudget() {
         if (checkLogin()) return;
 
+        requireWallet();
         System.out.print("Enter category name: ");
         String categoryName = scanner.nextLine().trim();
         System.out.print("Enter budget limit: ");
-        double limit = Double.parseDouble(scanner.nextLine());
+        Money limit = Money.parse(scanner.nextLine());
+        System.out.print("Enter budget period (daily/weekly/monthly/<days>d, empty for lifetime): ");
+        String period = scanner.nextLine().trim();
 
-        budgetService.setBudget(currentUser, categoryName, limit);
-        currentWallet = fileStorageService.loadUserData(currentUser);
-        fileStorageService.saveUserData(currentUser);
+        budgetService.setBudget(currentUser, categoryName, limit,
+                period.isEmpty() ? BudgetPeriod.LIFETIME : BudgetPeriod.parse(period));
+        persistence.markDirty(currentUser);
         System.out.println("Budget set.");
     }
 
     private void handleUpdateBudget() {
         if (checkLogin()) return;
 
+        requireWallet();
         System.out.print("Enter category name: ");
         String categoryName = scanner.nextLine().trim();
         System.out.print("Enter new budget limit: ");
-        double limit = Double.parseDouble(scanner.nextLine());
+        Money limit = Money.parse(scanner.nextLine());
+        System.out.print("Enter budget period (empty to keep the current one): ");
+        String period = scanner.nextLine().trim();
 
-        budgetService.updateBudget(currentUser, categoryName, limit);
-        currentWallet = fileStorageService.loadUserData(currentUser);
-        fileStorageService.saveUserData(currentUser);
+        budgetService.updateBudget(currentUser, categoryName, limit, period.isEmpty() ? null : BudgetPeriod.parse(period));
+        persistence.markDirty(currentUser);
         System.out.println("Budget updated.");
     }
 
@@ -304,8 +427,37 @@ public class FinanceManagerCLI {
             return;
         }
 
-        fileStorageService.exportWalletToCSV(currentUser);
-        System.out.println("Wallet exported to CSV.");
+        System.out.print("Enter output path (.gz to compress) or enter for default: ");
+        String path = scanner.nextLine().trim();
+        System.out.print("Filter by date? (yyyy-MM-dd yyyy-MM-dd) or enter to skip: ");
+        String input = scanner.nextLine().trim();
+
+        LocalDate start = null;
+        LocalDate end = null;
+        if (!input.isEmpty()) {
+            String[] dates = input.split("\\s+");
+            if (dates.length != 2) {
+                System.out.println("Invalid date input. Usage: start_date end_date (yyyy-MM-dd)");
+                return;
+            }
+            try {
+                start = LocalDate.parse(dates[0]);
+                end = LocalDate.parse(dates[1]);
+            } catch (Exception e) {
+                System.out.println("Invalid date format. Please use yyyy-MM-dd.");
+                return;
+            }
+            if (end.isBefore(start)) {
+                System.out.println("End date cannot be before start date.");
+                return;
+            }
+        }
+
+        requireWallet();
+        int rows = path.isEmpty()
+                ? fileStorageService.exportWalletToCSV(currentUser, start, end)
+                : fileStorageService.exportWalletToCSV(currentUser, Path.of(path), start, end);
+        System.out.println("Wallet exported to CSV (" + rows + " rows).");
     }
 
     private void handleImportCSV() {
@@ -315,17 +467,46 @@ public class FinanceManagerCLI {
 
         System.out.print("Enter CSV file path: ");
         String path = scanner.nextLine().trim();
-        fileStorageService.importWalletFromCSV(currentUser, path);
-        System.out.println("CSV imported successfully.");
+        requireWallet();
+        CsvImportReport report = fileStorageService.importWalletFromCSV(currentUser, path);
+        persistence.markDirty(currentUser, report.getAcceptedRows());
+        System.out.printf("CSV imported: %d rows accepted, %d rejected (%.0f rows/s, %.1f MB/s).%n",
+                report.getAcceptedRows(), report.getRejectedRows(),
+                report.getRowsPerSecond(), report.getMegabytesPerSecond());
+        if (!report.getRejectedLines().isEmpty()) {
+            System.out.println("Rejected lines: " + report.getRejectedLines().stream()
+                    .limit(10).map(String::valueOf).collect(Collectors.joining(", "))
+                    + (report.getRejectedRows() > 10 ? ", ..." : ""));
+        }
     }
 
-    private void handleExit() {
-        if (currentUser != null) {
-            fileStorageService.saveUserData(currentUser);
+    private void handleStats() throws IOException {
+        metrics.format().forEach(System.out::println);
+        System.out.printf("Unsaved: %d wallet(s), %d change(s)%n", persistence.getDirtyWallets(), persistence.getPendingChanges());
+        System.out.print("Write JSON to file (leave empty to skip): ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(Path.of(path), StandardCharsets.UTF_8)) {
+            metrics.writeJson(writer);
         }
+        System.out.println("Metrics written to " + path);
+    }
+
+    private void handleExit() {
+        persistence.close();
         System.out.println("Exiting Finance Manager CLI.");
     }
 
+    private Wallet requireWallet() {
+        if (currentWallet == null) {
+            currentWallet = fileStorageService.loadUserData(currentUser);
+            currentSummary = null;
+        }
+        return currentWallet;
+    }
+
     private boolean checkLogin() {
         if (currentUser == null) {
             System.out.println("You must be logged in to perform this action.");
@@ -351,6 +532,7 @@ public class FinanceManagerCLI {
         System.out.println("update_budget        - Update budget for category");
         System.out.println("export_csv           - Export wallet to CSV");
         System.out.println("import_csv           - Import CSV into wallet");
+        System.out.println("stats                - Show operation counts, latencies and I/O");
         System.out.println("help                 - Show this help");
         System.out.println("exit                 - Exit application");
     }
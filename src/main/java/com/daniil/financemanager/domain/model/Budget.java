@@ -1,33 +1,64 @@
 package com.daniil.financemanager.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.LocalDate;
+
 public class Budget {
     private final Category category;
-    private final double limit;
-    private double spent;
+    private final Money limit;
+    private final BudgetPeriod period;
+    private CategorySpending spending;
+
+    public Budget(Category category, Money limit) {
+        this(category, limit, BudgetPeriod.LIFETIME);
+    }
 
     @JsonCreator
-    public Budget(@JsonProperty("category") Category category, @JsonProperty("limit") double limit) {
+    public Budget(@JsonProperty("category") Category category, @JsonProperty("limit") Money limit,
+                  @JsonProperty("period") BudgetPeriod period) {
         this.category = category;
-        this.limit = limit;
-        this.spent = 0.0;
+        this.limit = limit.withScale(Money.DEFAULT_SCALE);
+        this.period = period == null ? BudgetPeriod.LIFETIME : period;
+    }
+
+    public Budget(Category category, Money limit, CategorySpending spending) {
+        this(category, limit, BudgetPeriod.LIFETIME, spending);
+    }
+
+    public Budget(Category category, Money limit, BudgetPeriod period, CategorySpending spending) {
+        this(category, limit, period);
+        this.spending = spending;
     }
 
     public Category getCategory() {
         return category;
     }
 
-    public double getLimit() {
+    public Money getLimit() {
         return limit;
     }
 
-    public double getSpent() {
-        return spent;
+    public BudgetPeriod getPeriod() {
+        return period;
+    }
+
+    public Money getSpent() {
+        return getSpent(LocalDate.now());
+    }
+
+    public Money getSpent(LocalDate date) {
+        return spending == null ? Money.ZERO : spending.get(category, period, date);
+    }
+
+    @JsonIgnore
+    public Money getRemaining() {
+        return limit.minus(getSpent());
     }
 
-    public void addExpense(double amount) {
-        this.spent += amount;
+    void bind(CategorySpending spending) {
+        this.spending = spending;
     }
 }
@@ -0,0 +1,141 @@
+package com.daniil.financemanager.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+public final class BudgetPeriod {
+    private static final int LIFETIME_DAYS = 0;
+    private static final int MONTH_DAYS = -1;
+    // 1970-01-05 was a Monday, so weekly windows run Monday to Sunday.
+    private static final long FIRST_MONDAY = 4;
+
+    public static final BudgetPeriod LIFETIME = new BudgetPeriod(LIFETIME_DAYS, 0);
+    public static final BudgetPeriod DAILY = new BudgetPeriod(1, 0);
+    public static final BudgetPeriod WEEKLY = new BudgetPeriod(7, FIRST_MONDAY);
+    public static final BudgetPeriod MONTHLY = new BudgetPeriod(MONTH_DAYS, 0);
+
+    private final int days;
+    private final long anchorDay;
+
+    private BudgetPeriod(int days, long anchorDay) {
+        this.days = days;
+        this.anchorDay = anchorDay;
+    }
+
+    public static BudgetPeriod ofDays(int days, LocalDate start) throws IllegalArgumentException {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Budget period length must be a positive number of days.");
+        }
+        return new BudgetPeriod(days, start.toEpochDay());
+    }
+
+    @JsonCreator
+    public static BudgetPeriod parse(String text) throws IllegalArgumentException {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        switch (value) {
+            case "lifetime" -> {
+                return LIFETIME;
+            }
+            case "daily" -> {
+                return DAILY;
+            }
+            case "weekly" -> {
+                return WEEKLY;
+            }
+            case "monthly" -> {
+                return MONTHLY;
+            }
+            default -> {
+                int at = value.indexOf('@');
+                String length = at < 0 ? value : value.substring(0, at);
+                if (!length.endsWith("d")) {
+                    throw new IllegalArgumentException("Invalid budget period: " + text);
+                }
+                try {
+                    LocalDate start = at < 0 ? LocalDate.EPOCH : LocalDate.parse(value.substring(at + 1));
+                    return ofDays(Integer.parseInt(length.substring(0, length.length() - 1)), start);
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid budget period: " + text);
+                }
+            }
+        }
+    }
+
+    public boolean isLifetime() {
+        return days == LIFETIME_DAYS;
+    }
+
+    public long index(int epochDay) {
+        if (days == LIFETIME_DAYS) {
+            return 0L;
+        }
+        if (days == MONTH_DAYS) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            return date.getYear() * 12L + date.getMonthValue() - 1;
+        }
+        return Math.floorDiv(epochDay - anchorDay, days);
+    }
+
+    public long index(LocalDate date) {
+        return index((int) date.toEpochDay());
+    }
+
+    public LocalDate windowStart(LocalDate date) {
+        if (days == LIFETIME_DAYS) {
+            return LocalDate.MIN;
+        }
+        if (days == MONTH_DAYS) {
+            return date.withDayOfMonth(1);
+        }
+        return LocalDate.ofEpochDay(anchorDay + index(date) * days);
+    }
+
+    public LocalDate windowEnd(LocalDate date) {
+        if (days == LIFETIME_DAYS) {
+            return LocalDate.MAX;
+        }
+        if (days == MONTH_DAYS) {
+            return date.withDayOfMonth(date.lengthOfMonth());
+        }
+        return windowStart(date).plusDays(days - 1L);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BudgetPeriod period)) {
+            return false;
+        }
+        return days == period.days && normalizedAnchor() == period.normalizedAnchor();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * days + Long.hashCode(normalizedAnchor());
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        if (equals(LIFETIME)) {
+            return "lifetime";
+        } else if (equals(DAILY)) {
+            return "daily";
+        } else if (equals(WEEKLY)) {
+            return "weekly";
+        } else if (equals(MONTHLY)) {
+            return "monthly";
+        }
+        return anchorDay == 0 ? days + "d" : days + "d@" + LocalDate.ofEpochDay(anchorDay);
+    }
+
+    private long normalizedAnchor() {
+        return days > 0 ? Math.floorMod(anchorDay, days) : 0L;
+    }
+}
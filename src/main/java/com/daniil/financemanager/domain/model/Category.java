@@ -1,20 +1,52 @@
 package com.daniil.financemanager.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Objects;
+
 public class Category {
+    public static final int UNASSIGNED_ID = -1;
+
     private final String name;
+    private final String normalizedName;
+    private final int hash;
+    private int id;
 
     @JsonCreator
     public Category(@JsonProperty("name") String name) {
         this.name = name;
+        this.normalizedName = name == null ? null : normalize(name);
+        this.hash = Objects.hashCode(normalizedName);
+        this.id = UNASSIGNED_ID;
+    }
+
+    public static String normalize(String name) {
+        return name.toLowerCase();
     }
 
     public String getName() {
         return name;
     }
 
+    @JsonIgnore
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    @JsonIgnore
+    public int getId() {
+        return id;
+    }
+
+    public void assignId(int id) throws IllegalStateException {
+        if (this.id != UNASSIGNED_ID && this.id != id) {
+            throw new IllegalStateException("Category '" + name + "' already has id " + this.id);
+        }
+        this.id = id;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -24,12 +56,12 @@ public class Category {
             return false;
         }
 
-        return name.equalsIgnoreCase(category.name);
+        return hash == category.hash && Objects.equals(normalizedName, category.normalizedName);
     }
 
     @Override
     public int hashCode() {
-        return name.toLowerCase().hashCode();
+        return hash;
     }
 
     @Override
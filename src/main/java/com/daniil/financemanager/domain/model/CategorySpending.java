@@ -0,0 +1,141 @@
+package com.daniil.financemanager.domain.model;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class CategorySpending {
+    private final Map<Category, Entry> entries = new HashMap<>();
+
+    public Money get(Category category) {
+        Entry entry = entries.get(category);
+        return Money.ofMinor(entry == null ? 0L : entry.spent);
+    }
+
+    public Money get(Category category, BudgetPeriod period, LocalDate date) {
+        if (period.isLifetime()) {
+            return get(category);
+        }
+        Entry entry = entries.get(category);
+        if (entry == null || entry.window == null || !entry.window.period().equals(period)) {
+            return Money.ZERO;
+        }
+        return Money.ofMinor(entry.window.get(period.index(date)));
+    }
+
+    public void add(Category category, Money amount) {
+        addMinorUnits(category, amount.withScale(Money.DEFAULT_SCALE).minorUnits());
+    }
+
+    public void add(Category category, Money amount, int epochDay) {
+        addMinorUnits(category, amount.withScale(Money.DEFAULT_SCALE).minorUnits(), epochDay);
+    }
+
+    public void addToWindow(Category category, Money amount, int epochDay) {
+        Entry entry = entries.get(category);
+        if (entry != null && entry.window != null) {
+            entry.window.add(epochDay, amount.withScale(Money.DEFAULT_SCALE).minorUnits());
+        }
+    }
+
+    public void addAll(CategorySpending other) {
+        other.entries.forEach((category, otherEntry) -> {
+            Entry entry = entries.computeIfAbsent(category, c -> new Entry());
+            entry.spent = Math.addExact(entry.spent, otherEntry.spent);
+            if (otherEntry.window == null) {
+                return;
+            }
+            if (entry.window == null) {
+                entry.window = new PeriodSpending(otherEntry.window.period());
+            }
+            if (entry.window.period().equals(otherEntry.window.period())) {
+                entry.window.addAll(otherEntry.window);
+            }
+        });
+    }
+
+    public boolean tracks(Category category, BudgetPeriod period) {
+        if (period.isLifetime()) {
+            return true;
+        }
+        Entry entry = entries.get(category);
+        return entry != null && entry.window != null && entry.window.period().equals(period);
+    }
+
+    // Returns true when a new, empty window was started and still has to be filled from existing rows.
+    public boolean track(Category category, BudgetPeriod period) {
+        if (tracks(category, period)) {
+            return false;
+        }
+        entries.computeIfAbsent(category, c -> new Entry()).window = new PeriodSpending(period);
+        return true;
+    }
+
+    void addMinorUnits(Category category, long minorUnits) {
+        if (category == null) {
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(category, c -> new Entry());
+        entry.spent = Math.addExact(entry.spent, minorUnits);
+    }
+
+    void addMinorUnits(Category category, long minorUnits, int epochDay) {
+        if (category == null) {
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(category, c -> new Entry());
+        entry.spent = Math.addExact(entry.spent, minorUnits);
+        if (entry.window != null) {
+            entry.window.add(epochDay, minorUnits);
+        }
+    }
+
+    // A date edit moves an expense between window periods; the lifetime total stays the same.
+    void moveInWindow(Category category, long minorUnits, int fromEpochDay, int toEpochDay) {
+        Entry entry = entries.get(category);
+        if (entry != null && entry.window != null) {
+            entry.window.subtract(fromEpochDay, minorUnits);
+            entry.window.add(toEpochDay, minorUnits);
+        }
+    }
+
+    PeriodSpending window(Category category) {
+        Entry entry = entries.get(category);
+        return entry == null ? null : entry.window;
+    }
+
+    void untrack(Category category) {
+        Entry entry = entries.get(category);
+        if (entry != null) {
+            entry.window = null;
+        }
+    }
+
+    void rename(Category oldCategory, Category newCategory) {
+        Entry moved = entries.remove(oldCategory);
+        if (moved == null) {
+            return;
+        }
+        Entry existing = entries.putIfAbsent(newCategory, moved);
+        if (existing != null) {
+            existing.spent = Math.addExact(existing.spent, moved.spent);
+            // The budget rebinding after a rename refills the merged window from the rows.
+            existing.window = null;
+        }
+    }
+
+    // Keeps the tracked windows so a rebuild refills them instead of dropping period budgets.
+    void clear() {
+        for (Entry entry : entries.values()) {
+            entry.spent = 0L;
+            if (entry.window != null) {
+                entry.window.clear();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private long spent;
+        private PeriodSpending window;
+    }
+}
@@ -0,0 +1,75 @@
+package com.daniil.financemanager.domain.model;
+
+// Fenwick tree of per-day sums over a window of epoch days that grows as rows arrive outside it.
+// Node sums may wrap on overflow; the prefix difference is still exact whenever the range total fits in a long.
+final class DaySumTree {
+    static final int MAX_DAYS = 1 << 20;
+    private static final int INITIAL_DAYS = 64;
+
+    private int firstDay;
+    private long[] daily;
+    private long[] tree;
+
+    boolean add(int epochDay, long amount) {
+        if (daily == null) {
+            firstDay = epochDay - INITIAL_DAYS / 2;
+            daily = new long[INITIAL_DAYS];
+            tree = new long[INITIAL_DAYS + 1];
+        } else if (epochDay < firstDay || epochDay >= firstDay + daily.length) {
+            if (!grow(epochDay)) {
+                return false;
+            }
+        }
+        int index = epochDay - firstDay;
+        daily[index] += amount;
+        for (int node = index + 1; node < tree.length; node += node & -node) {
+            tree[node] += amount;
+        }
+        return true;
+    }
+
+    long sum(int fromDay, int toDay) {
+        if (daily == null || toDay < fromDay) {
+            return 0L;
+        }
+        return prefix(toDay) - prefix(fromDay - 1);
+    }
+
+    private long prefix(int epochDay) {
+        long count = (long) epochDay - firstDay + 1;
+        if (count <= 0) {
+            return 0L;
+        }
+        long sum = 0L;
+        for (int node = (int) Math.min(count, daily.length); node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+
+    // Doubles the window towards the side that overflowed, so a run of newer (or older) days grows it rarely.
+    private boolean grow(int epochDay) {
+        long lastDay = (long) firstDay + daily.length - 1;
+        long span = Math.max(lastDay, epochDay) - Math.min(firstDay, (long) epochDay) + 1;
+        if (span > MAX_DAYS) {
+            return false;
+        }
+        int capacity = (int) Math.min(MAX_DAYS, Math.max(span, daily.length * 2L));
+        int newFirstDay = epochDay < firstDay ? (int) (lastDay - capacity + 1) : firstDay;
+
+        long[] newDaily = new long[capacity];
+        System.arraycopy(daily, 0, newDaily, firstDay - newFirstDay, daily.length);
+        long[] newTree = new long[capacity + 1];
+        System.arraycopy(newDaily, 0, newTree, 1, capacity);
+        for (int node = 1; node <= capacity; node++) {
+            int parent = node + (node & -node);
+            if (parent <= capacity) {
+                newTree[parent] += newTree[node];
+            }
+        }
+        firstDay = newFirstDay;
+        daily = newDaily;
+        tree = newTree;
+        return true;
+    }
+}
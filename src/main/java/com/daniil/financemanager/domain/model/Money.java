@@ -0,0 +1,168 @@
+package com.daniil.financemanager.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Money implements Comparable<Money> {
+    public static final int MAX_SCALE = 8;
+    private static final long[] POWERS_OF_TEN = powersOfTen();
+    public static final int DEFAULT_SCALE = checkScale(Integer.getInteger("financemanager.moneyScale", 2));
+    public static final Money ZERO = new Money(0L, DEFAULT_SCALE);
+
+    private final long minorUnits;
+    private final int scale;
+
+    private Money(long minorUnits, int scale) {
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+    }
+
+    public static Money of(long units) {
+        return ofMinor(Math.multiplyExact(units, POWERS_OF_TEN[DEFAULT_SCALE]));
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, DEFAULT_SCALE);
+    }
+
+    public static Money ofMinor(long minorUnits, int scale) {
+        return new Money(minorUnits, checkScale(scale));
+    }
+
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_SCALE);
+    }
+
+    public static Money of(BigDecimal amount, int scale) {
+        try {
+            BigDecimal rounded = amount.setScale(checkScale(scale), RoundingMode.HALF_UP);
+            return new Money(rounded.unscaledValue().longValueExact(), scale);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + amount.toPlainString());
+        }
+    }
+
+    public static Money parse(String text) throws IllegalArgumentException {
+        try {
+            return of(new BigDecimal(text.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+
+    public static long unit(int scale) {
+        return POWERS_OF_TEN[checkScale(scale)];
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public Money withScale(int newScale) {
+        checkScale(newScale);
+        if (newScale == scale) {
+            return this;
+        }
+        if (newScale > scale) {
+            return new Money(Math.multiplyExact(minorUnits, POWERS_OF_TEN[newScale - scale]), newScale);
+        }
+        return of(toBigDecimal(), newScale);
+    }
+
+    public Money plus(Money other) {
+        if (other.scale != scale) {
+            int common = Math.max(scale, other.scale);
+            return withScale(common).plus(other.withScale(common));
+        }
+        return new Money(Math.addExact(minorUnits, other.minorUnits), scale);
+    }
+
+    public Money minus(Money other) {
+        if (other.scale != scale) {
+            int common = Math.max(scale, other.scale);
+            return withScale(common).minus(other.withScale(common));
+        }
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), scale);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), scale);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (other.scale == scale) {
+            return Long.compare(minorUnits, other.minorUnits);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money money)) {
+            return false;
+        }
+        return minorUnits == money.minorUnits && scale == money.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + scale;
+    }
+
+    @Override
+    public String toString() {
+        if (scale == 0) {
+            return Long.toString(minorUnits);
+        }
+        long unit = POWERS_OF_TEN[scale];
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(Math.abs(minorUnits / unit)).append('.');
+        String fraction = Long.toString(Math.abs(minorUnits % unit));
+        text.repeat('0', scale - fraction.length()).append(fraction);
+        return text.toString();
+    }
+
+    private static int checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Money scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+        return scale;
+    }
+
+    private static long[] powersOfTen() {
+        long[] powers = new long[MAX_SCALE + 1];
+        powers[0] = 1L;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1] * 10;
+        }
+        return powers;
+    }
+}
@@ -0,0 +1,70 @@
+package com.daniil.financemanager.domain.model;
+
+import java.util.Arrays;
+
+// Ring of per-period expense sums: a slot is reused once a newer period maps onto it, so the window rolls
+// forward on write and expenses older than the ring are dropped instead of being kept forever.
+final class PeriodSpending {
+    static final int BUCKETS = 16;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final BudgetPeriod period;
+    private final long[] periodIndexes = new long[BUCKETS];
+    private final long[] sums = new long[BUCKETS];
+
+    PeriodSpending(BudgetPeriod period) {
+        this.period = period;
+        clear();
+    }
+
+    BudgetPeriod period() {
+        return period;
+    }
+
+    void add(int epochDay, long minorUnits) {
+        addToPeriod(period.index(epochDay), minorUnits);
+    }
+
+    // Only takes the amount back while its period is still in the ring; an evicted period no longer holds it.
+    void subtract(int epochDay, long minorUnits) {
+        long periodIndex = period.index(epochDay);
+        int slot = slot(periodIndex);
+        if (periodIndexes[slot] == periodIndex) {
+            sums[slot] = Math.subtractExact(sums[slot], minorUnits);
+        }
+    }
+
+    long get(long periodIndex) {
+        int slot = slot(periodIndex);
+        return periodIndexes[slot] == periodIndex ? sums[slot] : 0L;
+    }
+
+    void addAll(PeriodSpending other) {
+        for (int slot = 0; slot < BUCKETS; slot++) {
+            if (other.periodIndexes[slot] != EMPTY) {
+                addToPeriod(other.periodIndexes[slot], other.sums[slot]);
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(periodIndexes, EMPTY);
+        Arrays.fill(sums, 0L);
+    }
+
+    private void addToPeriod(long periodIndex, long minorUnits) {
+        int slot = slot(periodIndex);
+        if (periodIndexes[slot] != periodIndex) {
+            if (periodIndexes[slot] > periodIndex) {
+                return;
+            }
+            periodIndexes[slot] = periodIndex;
+            sums[slot] = 0L;
+        }
+        sums[slot] = Math.addExact(sums[slot], minorUnits);
+    }
+
+    private static int slot(long periodIndex) {
+        return (int) Math.floorMod(periodIndex, (long) BUCKETS);
+    }
+}
@@ -0,0 +1,229 @@
+package com.daniil.financemanager.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Month x category x type -> (sum, count). Reports read a few cells per month instead of every row.
+public final class RollupCube {
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int SLOTS = TYPES.length * 2;
+
+    private final List<Category> categories;
+    // Null when the category list belongs to a TransactionStore, which hands out the ids itself.
+    private final Map<Category, Integer> ids;
+    private final TreeMap<Integer, long[]> cellsByMonth = new TreeMap<>();
+    private int lastEpochDay = Integer.MIN_VALUE;
+    private int lastMonth;
+
+    public RollupCube() {
+        this.categories = new ArrayList<>();
+        this.ids = new HashMap<>();
+    }
+
+    public RollupCube(RollupCube other) {
+        this();
+        addAll(other);
+    }
+
+    private RollupCube(List<Category> storeCategories) {
+        this.categories = storeCategories;
+        this.ids = null;
+    }
+
+    static RollupCube over(List<Category> storeCategories) {
+        return new RollupCube(storeCategories);
+    }
+
+    public record Cell(YearMonth month, String category, TransactionType type, Money sum, long count) {
+    }
+
+    void add(int type, int categoryId, int epochDay, long amount) {
+        if (epochDay != lastEpochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            lastMonth = date.getYear() * 12 + date.getMonthValue() - 1;
+            lastEpochDay = epochDay;
+        }
+        addCell(lastMonth, categoryId, type, amount, 1L);
+    }
+
+    public void add(TransactionType type, Category category, LocalDate date, Money amount) {
+        add(type.ordinal(), idOf(category), (int) date.toEpochDay(), amount.withScale(Money.DEFAULT_SCALE).minorUnits());
+    }
+
+    public void add(Cell cell) {
+        addCell(monthIndex(cell.month()), idOf(cell.category() == null ? null : new Category(cell.category())),
+                cell.type().ordinal(), cell.sum().withScale(Money.DEFAULT_SCALE).minorUnits(), cell.count());
+    }
+
+    public void addAll(RollupCube other) {
+        for (Cell cell : other.cells()) {
+            add(cell);
+        }
+    }
+
+    void clear() {
+        cellsByMonth.clear();
+    }
+
+    public Money total(TransactionType type) {
+        long sum = 0L;
+        for (long[] cells : cellsByMonth.values()) {
+            for (int base = type.ordinal() * 2; base < cells.length; base += SLOTS) {
+                sum = Math.addExact(sum, cells[base]);
+            }
+        }
+        return Money.ofMinor(sum);
+    }
+
+    public long count() {
+        long count = 0L;
+        for (long[] cells : cellsByMonth.values()) {
+            for (int slot = 1; slot < cells.length; slot += 2) {
+                count += cells[slot];
+            }
+        }
+        return count;
+    }
+
+    public Money sum(TransactionType type, Collection<String> categoryNames) {
+        return sum(type, categoryNames, null, null);
+    }
+
+    // Null bounds leave that side of the month range open.
+    public Money sum(TransactionType type, Collection<String> categoryNames, YearMonth from, YearMonth to) {
+        Set<String> names = new HashSet<>(categoryNames);
+        boolean[] selected = new boolean[categories.size() + 1];
+        boolean any = false;
+        for (int id = 0; id < categories.size(); id++) {
+            selected[id + 1] = names.contains(categories.get(id).getName());
+            any |= selected[id + 1];
+        }
+        if (!any) {
+            return Money.ZERO;
+        }
+
+        long sum = 0L;
+        for (long[] cells : months(from, to).values()) {
+            for (int slot = 1; slot * SLOTS < cells.length && slot < selected.length; slot++) {
+                if (selected[slot]) {
+                    sum = Math.addExact(sum, cells[slot * SLOTS + type.ordinal() * 2]);
+                }
+            }
+        }
+        return Money.ofMinor(sum);
+    }
+
+    public Money sum(TransactionType type, YearMonth month) {
+        long[] cells = cellsByMonth.get(monthIndex(month));
+        long sum = 0L;
+        if (cells != null) {
+            for (int base = type.ordinal() * 2; base < cells.length; base += SLOTS) {
+                sum = Math.addExact(sum, cells[base]);
+            }
+        }
+        return Money.ofMinor(sum);
+    }
+
+    public long count(TransactionType type, YearMonth month) {
+        long[] cells = cellsByMonth.get(monthIndex(month));
+        long count = 0L;
+        if (cells != null) {
+            for (int slot = type.ordinal() * 2 + 1; slot < cells.length; slot += SLOTS) {
+                count += cells[slot];
+            }
+        }
+        return count;
+    }
+
+    public List<YearMonth> months() {
+        List<YearMonth> months = new ArrayList<>(cellsByMonth.size());
+        for (int month : cellsByMonth.keySet()) {
+            months.add(toYearMonth(month));
+        }
+        return months;
+    }
+
+    public void addExpensesTo(CategorySpending spending) {
+        int expense = TransactionType.EXPENSE.ordinal() * 2;
+        for (long[] cells : cellsByMonth.values()) {
+            for (int slot = 1; slot * SLOTS < cells.length; slot++) {
+                if (cells[slot * SLOTS + expense + 1] != 0) {
+                    spending.addMinorUnits(categories.get(slot - 1), cells[slot * SLOTS + expense]);
+                }
+            }
+        }
+    }
+
+    @JsonValue
+    public List<Cell> cells() {
+        List<Cell> result = new ArrayList<>();
+        cellsByMonth.forEach((month, cells) -> {
+            YearMonth yearMonth = toYearMonth(month);
+            for (int base = 0; base < cells.length; base += 2) {
+                if (cells[base + 1] != 0) {
+                    int slot = base / SLOTS;
+                    String category = slot == 0 ? null : categories.get(slot - 1).getName();
+                    result.add(new Cell(yearMonth, category, TYPES[(base % SLOTS) / 2],
+                            Money.ofMinor(cells[base]), cells[base + 1]));
+                }
+            }
+        });
+        return result;
+    }
+
+    private void addCell(int month, int categoryId, int type, long sum, long count) {
+        int length = (categories.size() + 1) * SLOTS;
+        long[] cells = cellsByMonth.get(month);
+        if (cells == null) {
+            cells = new long[length];
+            cellsByMonth.put(month, cells);
+        } else if (cells.length < length) {
+            cells = Arrays.copyOf(cells, length);
+            cellsByMonth.put(month, cells);
+        }
+        int base = (categoryId + 1) * SLOTS + type * 2;
+        cells[base] += sum;
+        cells[base + 1] += count;
+    }
+
+    private int idOf(Category category) {
+        if (ids == null) {
+            throw new IllegalStateException("Rows reach a wallet's rollups through its transactions.");
+        }
+        if (category == null) {
+            return TransactionColumns.NO_CATEGORY;
+        }
+        return ids.computeIfAbsent(category, c -> {
+            categories.add(c);
+            return categories.size() - 1;
+        });
+    }
+
+    private Map<Integer, long[]> months(YearMonth from, YearMonth to) {
+        if (from == null && to == null) {
+            return cellsByMonth;
+        }
+        int first = from == null ? Integer.MIN_VALUE : monthIndex(from);
+        int last = to == null ? Integer.MAX_VALUE : monthIndex(to);
+        return first > last ? Map.of() : cellsByMonth.subMap(first, true, last, true);
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth toYearMonth(int month) {
+        return YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+    }
+}
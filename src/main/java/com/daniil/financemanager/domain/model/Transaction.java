@@ -8,15 +8,18 @@ import java.time.LocalDate;
 public class Transaction {
     private final TransactionType type;
     private final Category category;
-    private final double amount;
+    private final Money amount;
     private final String description;
     private LocalDate date;
+    private TransactionStore store;
+    private int row;
+    private int generation;
 
     @JsonCreator
     public Transaction(
             @JsonProperty("type") TransactionType type,
             @JsonProperty("category") Category category,
-            @JsonProperty("amount") double amount,
+            @JsonProperty("amount") Money amount,
             @JsonProperty("description") String description
     ) {
         this.type = type;
@@ -31,10 +34,10 @@ public class Transaction {
     }
 
     public Category getCategory() {
-        return category;
+        return isAttached() ? store.category(row) : category;
     }
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
@@ -48,5 +51,35 @@ public class Transaction {
 
     public void setDate(LocalDate date) {
         this.date = date;
+        if (isAttached()) {
+            store.setDate(row, date);
+        }
+    }
+
+    void attach(TransactionStore store, int row) {
+        this.store = store;
+        this.row = row;
+        this.generation = store.generation();
+    }
+
+    private boolean isAttached() {
+        return store != null && generation == store.generation();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Transaction transaction) || !isAttached()) {
+            return false;
+        }
+
+        return transaction.isAttached() && store == transaction.store && row == transaction.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return isAttached() ? 31 * System.identityHashCode(store) + row : System.identityHashCode(this);
     }
 }
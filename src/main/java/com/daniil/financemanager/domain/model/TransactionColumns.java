@@ -0,0 +1,23 @@
+package com.daniil.financemanager.domain.model;
+
+import java.util.List;
+
+public interface TransactionColumns {
+    int NO_CATEGORY = -1;
+
+    int size();
+
+    TransactionType type(int row);
+
+    int categoryIndex(int row);
+
+    List<Category> categories();
+
+    long amountMinorUnits(int row);
+
+    int epochDay(int row);
+
+    int descriptionLength(int row);
+
+    int copyDescription(int row, byte[] destination, int offset);
+}
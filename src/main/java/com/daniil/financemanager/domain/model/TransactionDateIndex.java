@@ -0,0 +1,84 @@
+package com.daniil.financemanager.domain.model;
+
+import java.util.Arrays;
+
+class TransactionDateIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] days;
+    private int[] positions;
+    private int size;
+    private boolean sorted;
+
+    TransactionDateIndex() {
+        this.days = new int[INITIAL_CAPACITY];
+        this.positions = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.sorted = true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void append(int epochDay, int position) {
+        if (size == days.length) {
+            int newCapacity = days.length + (days.length >> 1);
+            days = Arrays.copyOf(days, newCapacity);
+            positions = Arrays.copyOf(positions, newCapacity);
+        }
+        if (size > 0 && epochDay < days[size - 1]) {
+            sorted = false;
+        }
+        days[size] = epochDay;
+        positions[size] = position;
+        size++;
+    }
+
+    void clear() {
+        days = new int[INITIAL_CAPACITY];
+        positions = new int[INITIAL_CAPACITY];
+        size = 0;
+        sorted = true;
+    }
+
+    int[] positions() {
+        return positions;
+    }
+
+    int lowerBound(int epochDay) {
+        ensureSorted();
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureSorted() {
+        if (sorted) {
+            return;
+        }
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ((long) days[i] << 32) | (positions[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+
+        int[] sortedDays = new int[Math.max(size, INITIAL_CAPACITY)];
+        int[] sortedPositions = new int[sortedDays.length];
+        for (int i = 0; i < size; i++) {
+            sortedDays[i] = (int) (packed[i] >> 32);
+            sortedPositions[i] = (int) packed[i];
+        }
+        days = sortedDays;
+        positions = sortedPositions;
+        sorted = true;
+    }
+}
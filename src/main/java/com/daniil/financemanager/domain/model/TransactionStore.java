@@ -0,0 +1,393 @@
+package com.daniil.financemanager.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class TransactionStore implements TransactionColumns {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private int size;
+    private int[] epochDays;
+    private long[] amounts;
+    private long maxAbsAmount;
+    private int[] categoryIds;
+    private byte[] types;
+    private int[] descriptionOffsets;
+    private byte[] descriptionBytes;
+
+    private final List<Category> categories;
+    private final Map<Category, Integer> categoryIdsByCategory;
+    private int[] categoryIdsByDictionaryId;
+
+    private final CategorySpending spending;
+    private final TransactionDateIndex dateIndex;
+    private boolean dateIndexStale;
+    private DaySumTree[] dayTotalsByType;
+    private DaySumTree[][] dayTotalsByCategory;
+    private boolean dayTotalsStale;
+    private final RollupCube rollups;
+    private boolean rollupsStale;
+    private int generation;
+
+    TransactionStore(CategorySpending spending) {
+        this.spending = spending;
+        this.categories = new ArrayList<>();
+        this.categoryIdsByCategory = new HashMap<>();
+        this.categoryIdsByDictionaryId = new int[0];
+        this.dateIndex = new TransactionDateIndex();
+        this.rollups = RollupCube.over(categories);
+        reset();
+    }
+
+    private void reset() {
+        size = 0;
+        epochDays = new int[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        maxAbsAmount = 0L;
+        categoryIds = new int[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+        descriptionOffsets = new int[INITIAL_CAPACITY + 1];
+        descriptionBytes = new byte[INITIAL_CAPACITY * 8];
+        dateIndex.clear();
+        dateIndexStale = false;
+        resetDayTotals();
+        rollups.clear();
+        rollupsStale = false;
+    }
+
+    private void resetDayTotals() {
+        dayTotalsByType = new DaySumTree[TYPES.length];
+        for (int type = 0; type < TYPES.length; type++) {
+            dayTotalsByType[type] = new DaySumTree();
+        }
+        dayTotalsByCategory = new DaySumTree[TYPES.length][0];
+        dayTotalsStale = false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    int generation() {
+        return generation;
+    }
+
+    int append(TransactionType type, Category category, Money amount, String description, LocalDate date) {
+        if (size == epochDays.length) {
+            grow();
+        }
+        int row = size;
+        int epochDay = (int) date.toEpochDay();
+        epochDays[row] = epochDay;
+        long minorUnits = amount.withScale(Money.DEFAULT_SCALE).minorUnits();
+        amounts[row] = minorUnits;
+        maxAbsAmount = Math.max(maxAbsAmount, minorUnits == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(minorUnits));
+        categoryIds[row] = categoryId(category);
+        types[row] = (byte) type.ordinal();
+        appendDescription(row, description == null ? "" : description);
+        size++;
+
+        if (!dateIndexStale) {
+            dateIndex.append(epochDay, row);
+        }
+        if (!dayTotalsStale) {
+            addToDayTotals(row);
+        }
+        if (!rollupsStale) {
+            rollups.add(types[row], categoryIds[row], epochDay, minorUnits);
+        }
+        return row;
+    }
+
+    void clear() {
+        generation++;
+        categories.clear();
+        categoryIdsByCategory.clear();
+        categoryIdsByDictionaryId = new int[0];
+        reset();
+    }
+
+    Transaction materialize(int row) {
+        checkRow(row);
+        Transaction transaction = new Transaction(type(row), category(row), amount(row), description(row));
+        transaction.setDate(LocalDate.ofEpochDay(epochDays[row]));
+        transaction.attach(this, row);
+        return transaction;
+    }
+
+    @Override
+    public TransactionType type(int row) {
+        return TYPES[types[row]];
+    }
+
+    @Override
+    public int categoryIndex(int row) {
+        return categoryIds[row];
+    }
+
+    @Override
+    public List<Category> categories() {
+        return Collections.unmodifiableList(categories);
+    }
+
+    @Override
+    public int epochDay(int row) {
+        return epochDays[row];
+    }
+
+    @Override
+    public int descriptionLength(int row) {
+        return descriptionOffsets[row + 1] - descriptionOffsets[row];
+    }
+
+    @Override
+    public int copyDescription(int row, byte[] destination, int offset) {
+        int start = descriptionOffsets[row];
+        int length = descriptionOffsets[row + 1] - start;
+        System.arraycopy(descriptionBytes, start, destination, offset, length);
+        return length;
+    }
+
+    Category category(int row) {
+        int id = categoryIds[row];
+        return id == NO_CATEGORY ? null : categories.get(id);
+    }
+
+    Money amount(int row) {
+        return Money.ofMinor(amounts[row]);
+    }
+
+    @Override
+    public long amountMinorUnits(int row) {
+        return amounts[row];
+    }
+
+    String description(int row) {
+        int start = descriptionOffsets[row];
+        return new String(descriptionBytes, start, descriptionOffsets[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    void setDate(int row, LocalDate date) {
+        checkRow(row);
+        int oldDay = epochDays[row];
+        int newDay = (int) date.toEpochDay();
+        epochDays[row] = newDay;
+        if (types[row] == TransactionType.EXPENSE.ordinal() && categoryIds[row] != NO_CATEGORY && oldDay != newDay) {
+            spending.moveInWindow(categories.get(categoryIds[row]), amounts[row], oldDay, newDay);
+        }
+        dateIndexStale = true;
+        dayTotalsStale = true;
+        rollupsStale = true;
+    }
+
+    void renameCategory(Category oldCategory, Category newCategory) {
+        for (int id = 0; id < categories.size(); id++) {
+            Category current = categories.get(id);
+            if (current.equals(oldCategory)) {
+                forgetDictionaryId(current.getId());
+                categories.set(id, newCategory);
+                categoryIdsByCategory.remove(current);
+                categoryIdsByCategory.putIfAbsent(newCategory, id);
+            }
+        }
+        forgetDictionaryId(oldCategory.getId());
+    }
+
+    // Fills both the per-type totals and, for expenses, the per-category totals in one pass over the rows.
+    long[] sumByType(long[] expenseByCategory) {
+        long[] sums = new long[TYPES.length];
+        byte expense = (byte) TransactionType.EXPENSE.ordinal();
+        boolean exact = !sumCannotOverflow();
+        for (int i = 0; i < size; i++) {
+            long amount = amounts[i];
+            sums[types[i]] = exact ? Math.addExact(sums[types[i]], amount) : sums[types[i]] + amount;
+            int id = categoryIds[i];
+            if (types[i] == expense && id != NO_CATEGORY) {
+                expenseByCategory[id] = exact ? Math.addExact(expenseByCategory[id], amount) : expenseByCategory[id] + amount;
+            }
+        }
+        return sums;
+    }
+
+    // The lazy rebuilds below run on the store's own monitor, so readers sharing the wallet read lock can query
+    // concurrently; writers hold the wallet write lock and never race them.
+    synchronized RollupCube rollups() {
+        if (rollupsStale) {
+            rollups.clear();
+            for (int i = 0; i < size; i++) {
+                rollups.add(types[i], categoryIds[i], epochDays[i], amounts[i]);
+            }
+            rollupsStale = false;
+        }
+        return rollups;
+    }
+
+    // When no row is larger than MAX_VALUE / size, no partial sum can overflow and the plain loop is exact.
+    private boolean sumCannotOverflow() {
+        return size == 0 || maxAbsAmount <= Long.MAX_VALUE / size;
+    }
+
+    synchronized int[] rowsInRange(LocalDate start, LocalDate end, int[] bounds) {
+        if (dateIndexStale) {
+            rebuildDateIndex();
+        }
+        int from = dateIndex.lowerBound((int) start.toEpochDay());
+        int to = dateIndex.lowerBound((int) end.toEpochDay() + 1);
+        bounds[0] = from;
+        bounds[1] = Math.max(from, to);
+        return dateIndex.positions();
+    }
+
+    synchronized long sumBetween(TransactionType type, int fromDay, int toDay) {
+        if (dayTotalsStale) {
+            rebuildDayTotals();
+        }
+        DaySumTree tree = dayTotalsByType[type.ordinal()];
+        return tree == null ? scanBetween(type, null, fromDay, toDay) : tree.sum(fromDay, toDay);
+    }
+
+    synchronized long sumBetween(TransactionType type, Category category, int fromDay, int toDay) {
+        if (dayTotalsStale) {
+            rebuildDayTotals();
+        }
+        // A merging rename can leave several ids pointing at equal categories.
+        long sum = 0L;
+        for (int id = 0; id < categories.size(); id++) {
+            if (categories.get(id).equals(category)) {
+                DaySumTree tree = categoryDayTotals(type.ordinal(), id);
+                if (tree == null) {
+                    return scanBetween(type, category, fromDay, toDay);
+                }
+                sum += tree.sum(fromDay, toDay);
+            }
+        }
+        return sum;
+    }
+
+    private void addToDayTotals(int row) {
+        int type = types[row];
+        DaySumTree tree = dayTotalsByType[type];
+        if (tree != null && !tree.add(epochDays[row], amounts[row])) {
+            dayTotalsByType[type] = null;
+        }
+        int id = categoryIds[row];
+        DaySumTree[] byCategory = dayTotalsByCategory[type];
+        if (id != NO_CATEGORY && id < byCategory.length && byCategory[id] != null
+                && !byCategory[id].add(epochDays[row], amounts[row])) {
+            byCategory[id] = null;
+        }
+    }
+
+    private void rebuildDayTotals() {
+        resetDayTotals();
+        for (int i = 0; i < size; i++) {
+            addToDayTotals(i);
+        }
+    }
+
+    // Per-category trees are only worth their memory once a category is actually queried, so they start on demand.
+    private DaySumTree categoryDayTotals(int type, int id) {
+        DaySumTree[] byCategory = dayTotalsByCategory[type];
+        if (id >= byCategory.length) {
+            byCategory = Arrays.copyOf(byCategory, categories.size());
+            dayTotalsByCategory[type] = byCategory;
+        }
+        if (byCategory[id] == null) {
+            DaySumTree tree = new DaySumTree();
+            for (int i = 0; i < size; i++) {
+                if (types[i] == type && categoryIds[i] == id && !tree.add(epochDays[i], amounts[i])) {
+                    return null;
+                }
+            }
+            byCategory[id] = tree;
+        }
+        return byCategory[id];
+    }
+
+    // Fallback for wallets whose dates span more days than a tree covers.
+    private long scanBetween(TransactionType type, Category category, int fromDay, int toDay) {
+        byte typeCode = (byte) type.ordinal();
+        long sum = 0L;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == typeCode && epochDays[i] >= fromDay && epochDays[i] <= toDay
+                    && (category == null || categoryIds[i] != NO_CATEGORY && categories.get(categoryIds[i]).equals(category))) {
+                sum = Math.addExact(sum, amounts[i]);
+            }
+        }
+        return sum;
+    }
+
+    private void rebuildDateIndex() {
+        dateIndex.clear();
+        for (int i = 0; i < size; i++) {
+            dateIndex.append(epochDays[i], i);
+        }
+        dateIndexStale = false;
+    }
+
+    private int categoryId(Category category) {
+        if (category == null) {
+            return NO_CATEGORY;
+        }
+        int dictionaryId = category.getId();
+        if (dictionaryId >= 0 && dictionaryId < categoryIdsByDictionaryId.length
+                && categoryIdsByDictionaryId[dictionaryId] != 0) {
+            return categoryIdsByDictionaryId[dictionaryId] - 1;
+        }
+
+        Integer id = categoryIdsByCategory.get(category);
+        if (id == null) {
+            id = categories.size();
+            categories.add(category);
+            categoryIdsByCategory.put(category, id);
+        }
+        if (dictionaryId >= 0) {
+            if (dictionaryId >= categoryIdsByDictionaryId.length) {
+                categoryIdsByDictionaryId = Arrays.copyOf(categoryIdsByDictionaryId,
+                        Math.max(dictionaryId + 1, categoryIdsByDictionaryId.length * 2));
+            }
+            categoryIdsByDictionaryId[dictionaryId] = id + 1;
+        }
+        return id;
+    }
+
+    private void forgetDictionaryId(int dictionaryId) {
+        if (dictionaryId >= 0 && dictionaryId < categoryIdsByDictionaryId.length) {
+            categoryIdsByDictionaryId[dictionaryId] = 0;
+        }
+    }
+
+    private void appendDescription(int row, String description) {
+        byte[] encoded = description.getBytes(StandardCharsets.UTF_8);
+        int start = descriptionOffsets[row];
+        int end = start + encoded.length;
+        if (end > descriptionBytes.length) {
+            descriptionBytes = Arrays.copyOf(descriptionBytes, Math.max(end, descriptionBytes.length + (descriptionBytes.length >> 1)));
+        }
+        System.arraycopy(encoded, 0, descriptionBytes, start, encoded.length);
+        descriptionOffsets[row + 1] = end;
+    }
+
+    private void grow() {
+        int newCapacity = epochDays.length + (epochDays.length >> 1);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        amounts = Arrays.copyOf(amounts, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, newCapacity + 1);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+}
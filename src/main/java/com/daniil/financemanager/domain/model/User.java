@@ -1,7 +1,9 @@
 package com.daniil.financemanager.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
+import java.nio.file.Path;
 import java.util.UUID;
 
 public class User {
@@ -10,6 +12,8 @@ public class User {
     private final String salt;
     @JsonManagedReference
     private final Wallet wallet;
+    @JsonIgnore
+    private volatile Path walletLocation;
 
     public User(String login, String password) {
         this.login = login;
@@ -18,6 +22,19 @@ public class User {
         this.wallet = new Wallet(this);
     }
 
+    private User(String login, String salt, String passwordHash, Path walletLocation) {
+        this.login = login;
+        this.salt = salt;
+        this.password = passwordHash;
+        this.walletLocation = walletLocation;
+        this.wallet = new Wallet(this);
+    }
+
+    // Rebuilds a stored user from its salt and hash instead of hashing a password again.
+    public static User withCredentials(String login, String salt, String passwordHash, Path walletLocation) {
+        return new User(login, salt, passwordHash, walletLocation);
+    }
+
     private String generateSalt() {
         return UUID.randomUUID().toString();
     }
@@ -41,4 +58,13 @@ public class User {
     public Wallet getWallet() {
         return wallet;
     }
+
+    // Wallet files path without the format extension; null means the storage default.
+    public Path getWalletLocation() {
+        return walletLocation;
+    }
+
+    public void setWalletLocation(Path walletLocation) {
+        this.walletLocation = walletLocation;
+    }
 }
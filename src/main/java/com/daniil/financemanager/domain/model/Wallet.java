@@ -2,38 +2,211 @@ package com.daniil.financemanager.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonSetter;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
 
+// Budgets and rollups precede the rows so a streaming summary can often stop before reaching them.
+@JsonPropertyOrder({"journalSequence", "budgets", "rollups", "transactions"})
 public class Wallet {
+    private final TransactionStore store;
     private final List<Transaction> transactions;
     private final Map<Category, Budget> budgets;
+    private final CategorySpending spending;
+    private final ReadWriteLock lock;
     @JsonBackReference
     private User user;
+    private long totalIncomeMinor;
+    private long totalExpenseMinor;
+    private long journalSequence;
 
     @JsonCreator
     public Wallet(@JsonProperty("user") User user) {
-        this.transactions = new ArrayList<>();
-        this.budgets = new HashMap<>();
+        this.spending = new CategorySpending();
+        this.store = new TransactionStore(spending);
+        this.transactions = new TransactionView();
+        this.budgets = new BudgetMap();
+        this.lock = new ReentrantReadWriteLock();
         this.user = user;
     }
 
+    @JsonIgnore
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
     public List<Transaction> getTransactions() {
         return transactions;
     }
 
+    @JsonIgnore
+    public TransactionColumns getTransactionColumns() {
+        return store;
+    }
+
+    @JsonSetter("transactions")
+    private void setTransactions(List<Transaction> loaded) {
+        transactions.clear();
+        transactions.addAll(loaded);
+    }
+
     public void addTransaction(Transaction transaction) {
-        this.transactions.add(transaction);
+        applyToTotals(transaction.getType(), transaction.getCategory(), transaction.getAmount(), transaction.getDate());
+        int row = store.append(transaction.getType(), transaction.getCategory(), transaction.getAmount(),
+                transaction.getDescription(), transaction.getDate());
+        transaction.attach(store, row);
+    }
+
+    public void addTransaction(TransactionType type, Category category, Money amount, String description, LocalDate date) {
+        applyToTotals(type, category, amount, date);
+        store.append(type, category, amount, description, date);
+    }
+
+    // Runs before the row is stored so an overflowing amount leaves both the rows and the totals untouched.
+    private void applyToTotals(TransactionType type, Category category, Money amount, LocalDate date) {
+        long minorUnits = amount.withScale(Money.DEFAULT_SCALE).minorUnits();
+        if (type == TransactionType.INCOME) {
+            totalIncomeMinor = Math.addExact(totalIncomeMinor, minorUnits);
+        } else {
+            totalExpenseMinor = Math.addExact(totalExpenseMinor, minorUnits);
+            spending.addMinorUnits(category, minorUnits, (int) date.toEpochDay());
+        }
+    }
+
+    @JsonIgnore
+    public Money getTotalIncome() {
+        return Money.ofMinor(totalIncomeMinor);
+    }
+
+    @JsonIgnore
+    public Money getTotalExpense() {
+        return Money.ofMinor(totalExpenseMinor);
+    }
+
+    public void recalculateTotals() {
+        List<Category> categories = store.categories();
+        long[] expenseByCategory = new long[categories.size()];
+        long[] sums = store.sumByType(expenseByCategory);
+        this.totalIncomeMinor = sums[TransactionType.INCOME.ordinal()];
+        this.totalExpenseMinor = sums[TransactionType.EXPENSE.ordinal()];
+
+        spending.clear();
+        PeriodSpending[] windows = new PeriodSpending[categories.size()];
+        boolean windowed = false;
+        for (int id = 0; id < expenseByCategory.length; id++) {
+            spending.addMinorUnits(categories.get(id), expenseByCategory[id]);
+            windows[id] = spending.window(categories.get(id));
+            windowed |= windows[id] != null;
+        }
+        if (windowed) {
+            fillWindows(windows);
+        }
+    }
+
+    private void fillWindows(PeriodSpending[] windowsByCategoryId) {
+        for (int row = 0, size = store.size(); row < size; row++) {
+            int id = store.categoryIndex(row);
+            if (id != TransactionColumns.NO_CATEGORY && windowsByCategoryId[id] != null
+                    && store.type(row) == TransactionType.EXPENSE) {
+                windowsByCategoryId[id].add(store.epochDay(row), store.amountMinorUnits(row));
+            }
+        }
+    }
+
+    @JsonIgnore
+    public CategorySpending getSpending() {
+        return spending;
+    }
+
+    public void verifyTotals() throws IllegalStateException {
+        Money cachedIncome = getTotalIncome();
+        Money cachedExpense = getTotalExpense();
+        recalculateTotals();
+        if (!cachedIncome.equals(getTotalIncome()) || !cachedExpense.equals(getTotalExpense())) {
+            throw new IllegalStateException(String.format(
+                    "Cached wallet totals are out of sync: income %s (actual %s), expense %s (actual %s)",
+                    cachedIncome, getTotalIncome(), cachedExpense, getTotalExpense()));
+        }
+    }
+
+    public Money sumByCategories(TransactionType type, Collection<String> categoryNames) {
+        return store.rollups().sum(type, categoryNames);
+    }
+
+    public Money sumByCategories(TransactionType type, Collection<String> categoryNames, YearMonth from, YearMonth to) {
+        return store.rollups().sum(type, categoryNames, from, to);
+    }
+
+    // A copy, so callers can keep reading it after releasing the wallet lock.
+    public RollupCube getRollups() {
+        return new RollupCube(store.rollups());
+    }
+
+    public Money sumBetween(TransactionType type, LocalDate start, LocalDate end) {
+        return Money.ofMinor(store.sumBetween(type, (int) start.toEpochDay(), (int) end.toEpochDay()));
+    }
+
+    public Money sumBetween(TransactionType type, Category category, LocalDate start, LocalDate end) {
+        return Money.ofMinor(store.sumBetween(type, category, (int) start.toEpochDay(), (int) end.toEpochDay()));
+    }
+
+    public List<Transaction> getTransactionsBetween(LocalDate start, LocalDate end) {
+        int[] bounds = new int[2];
+        int[] rows = store.rowsInRange(start, end, bounds);
+        return new RowView(rows, bounds[0], bounds[1]);
+    }
+
+    public void forEachRowBetween(LocalDate start, LocalDate end, IntConsumer action) {
+        int[] bounds = new int[2];
+        int[] rows = store.rowsInRange(start, end, bounds);
+        for (int i = bounds[0]; i < bounds[1]; i++) {
+            action.accept(rows[i]);
+        }
+    }
+
+    public void renameCategory(Category oldCategory, Category newCategory) {
+        store.renameCategory(oldCategory, newCategory);
+        spending.rename(oldCategory, newCategory);
+
+        Budget budget = budgets.remove(oldCategory);
+        if (budget != null) {
+            budgets.put(newCategory, new Budget(newCategory, budget.getLimit(), budget.getPeriod()));
+        } else if (budgets.containsKey(newCategory)) {
+            // Merging into an existing category drops its window; rebinding refills it from the rows.
+            budgets.put(newCategory, budgets.get(newCategory));
+        }
     }
 
     public Map<Category, Budget> getBudgets() {
         return budgets;
     }
 
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+
+    public long nextJournalSequence() {
+        return ++journalSequence;
+    }
+
     public User getUser() {
         return user;
     }
@@ -41,4 +214,100 @@ public class Wallet {
     public void setUser(User user) {
         this.user = user;
     }
+
+    private final class BudgetMap extends HashMap<Category, Budget> {
+        @Override
+        public Budget put(Category category, Budget budget) {
+            budget.bind(spending);
+            if (budget.getPeriod().isLifetime()) {
+                spending.untrack(category);
+            } else if (spending.track(category, budget.getPeriod())) {
+                // A rename that merged categories leaves several dictionary ids equal to this one; fill from all of them.
+                List<Category> categories = store.categories();
+                PeriodSpending[] windows = new PeriodSpending[categories.size()];
+                boolean known = false;
+                for (int id = 0; id < windows.length; id++) {
+                    if (categories.get(id).equals(category)) {
+                        windows[id] = spending.window(category);
+                        known = true;
+                    }
+                }
+                if (known) {
+                    fillWindows(windows);
+                }
+            }
+            return super.put(category, budget);
+        }
+
+        @Override
+        public void putAll(Map<? extends Category, ? extends Budget> budgets) {
+            budgets.forEach(this::put);
+        }
+    }
+
+    private final class TransactionView extends AbstractList<Transaction> implements RandomAccess {
+        @Override
+        public Transaction get(int index) {
+            return store.materialize(index);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+
+        @Override
+        public void add(int index, Transaction transaction) {
+            if (index != store.size()) {
+                throw new UnsupportedOperationException("Transactions can only be appended.");
+            }
+            addTransaction(transaction);
+        }
+
+        @Override
+        public void clear() {
+            store.clear();
+            totalIncomeMinor = 0L;
+            totalExpenseMinor = 0L;
+            spending.clear();
+        }
+    }
+
+    private final class RowView extends AbstractList<Transaction> implements RandomAccess {
+        private final int generation;
+        private final int[] rows;
+        private final int from;
+        private final int to;
+
+        private RowView(int[] rows, int from, int to) {
+            this.generation = store.generation();
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        // The view outlives the lock its query held, so each read takes the wallet read lock itself. Later appends
+        // only write past this slice of the date index, and a re-sort or rebuild allocates new arrays.
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                if (generation != store.generation()) {
+                    throw new IllegalStateException("Wallet transactions were cleared after this view was created.");
+                }
+                return store.materialize(rows[from + index]);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
 }
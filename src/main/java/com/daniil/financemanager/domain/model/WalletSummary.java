@@ -0,0 +1,44 @@
+package com.daniil.financemanager.domain.model;
+
+import java.util.Map;
+
+public class WalletSummary {
+    private final Money totalIncome;
+    private final Money totalExpense;
+    private final int transactionCount;
+    private final Map<Category, Budget> budgets;
+    private final RollupCube rollups;
+
+    public WalletSummary(Money totalIncome, Money totalExpense, int transactionCount, Map<Category, Budget> budgets,
+                         RollupCube rollups) {
+        this.totalIncome = totalIncome;
+        this.totalExpense = totalExpense;
+        this.transactionCount = transactionCount;
+        this.budgets = budgets;
+        this.rollups = rollups;
+    }
+
+    public Money getTotalIncome() {
+        return totalIncome;
+    }
+
+    public Money getTotalExpense() {
+        return totalExpense;
+    }
+
+    public Money getBalance() {
+        return totalIncome.minus(totalExpense);
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Map<Category, Budget> getBudgets() {
+        return budgets;
+    }
+
+    public RollupCube getRollups() {
+        return rollups;
+    }
+}
@@ -7,6 +7,8 @@ import java.util.Optional;
 public interface CategoryRepository {
     Optional<Category> findByName(String name);
 
+    Optional<Category> findById(int id);
+
     void save(Category category);
 
     void delete(Category category);
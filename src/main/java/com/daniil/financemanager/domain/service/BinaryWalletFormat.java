@@ -0,0 +1,285 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class BinaryWalletFormat {
+    static final int MAGIC = 0x464D5731;
+    static final int VERSION = 4;
+    private static final int CENTS_VERSION = 1;
+    private static final int SCALE_VERSION = 2;
+    private static final int PERIOD_VERSION = 3;
+    private static final int CENTS_SCALE = 2;
+    static final int ROW_COUNT_SLOT = TransactionType.values().length;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    static boolean isBinary(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    void write(Wallet wallet, OutputStream target) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(Money.DEFAULT_SCALE);
+        writeVarLong(out, wallet.getJournalSequence());
+
+        TransactionColumns columns = wallet.getTransactionColumns();
+        List<Category> categories = columns.categories();
+        writeVarLong(out, categories.size());
+        for (Category category : categories) {
+            writeString(out, category.getName());
+        }
+
+        Map<Category, Budget> budgets = wallet.getBudgets();
+        writeVarLong(out, budgets.size());
+        for (Budget budget : budgets.values()) {
+            writeString(out, budget.getCategory().getName());
+            writeVarLong(out, zigZag(budget.getLimit().withScale(Money.DEFAULT_SCALE).minorUnits()));
+            writeVarLong(out, zigZag(budget.getSpent().withScale(Money.DEFAULT_SCALE).minorUnits()));
+            writeString(out, budget.getPeriod().toString());
+        }
+
+        Map<Category, Integer> categoryRefs = new HashMap<>();
+        for (int id = 0; id < categories.size(); id++) {
+            categoryRefs.putIfAbsent(categories.get(id), id + 1);
+        }
+        List<RollupCube.Cell> cells = wallet.getRollups().cells();
+        writeVarLong(out, cells.size());
+        for (RollupCube.Cell cell : cells) {
+            writeVarLong(out, zigZag(cell.month().getYear() * 12L + cell.month().getMonthValue() - 1));
+            writeVarLong(out, cell.category() == null ? 0 : categoryRefs.get(new Category(cell.category())));
+            out.writeByte(cell.type().ordinal());
+            writeVarLong(out, zigZag(cell.sum().withScale(Money.DEFAULT_SCALE).minorUnits()));
+            writeVarLong(out, cell.count());
+        }
+
+        int size = columns.size();
+        writeVarLong(out, size);
+        byte[] description = new byte[256];
+        int previousDay = 0;
+        for (int row = 0; row < size; row++) {
+            out.writeByte(columns.type(row).ordinal());
+            writeVarLong(out, columns.categoryIndex(row) + 1L);
+            writeVarLong(out, zigZag(columns.amountMinorUnits(row)));
+            int day = columns.epochDay(row);
+            writeVarLong(out, zigZag((long) day - previousDay));
+            previousDay = day;
+
+            int length = columns.descriptionLength(row);
+            if (length > description.length) {
+                description = new byte[Math.max(length, description.length * 2)];
+            }
+            columns.copyDescription(row, description, 0);
+            writeVarLong(out, length);
+            out.write(description, 0, length);
+        }
+        out.flush();
+    }
+
+    void read(InputStream source, Wallet wallet) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source, BUFFER_SIZE));
+        wallet.getTransactions().clear();
+        Header header = readHeader(in, wallet, null);
+        List<Category> categories = header.categories();
+
+        int size = (int) readVarLong(in);
+        byte[] description = new byte[256];
+        long day = 0;
+        for (int row = 0; row < size; row++) {
+            TransactionType type = TYPES[in.readUnsignedByte()];
+            int categoryIndex = (int) readVarLong(in) - 1;
+            Category category = categoryIndex == TransactionColumns.NO_CATEGORY ? null : categories.get(categoryIndex);
+            long amount = unZigZag(readVarLong(in));
+            day += unZigZag(readVarLong(in));
+
+            int length = (int) readVarLong(in);
+            if (length > description.length) {
+                description = new byte[Math.max(length, description.length * 2)];
+            }
+            in.readFully(description, 0, length);
+            wallet.addTransaction(type, category, Money.ofMinor(amount, header.scale()),
+                    new String(description, 0, length, StandardCharsets.UTF_8), LocalDate.ofEpochDay(day));
+        }
+    }
+
+    long[] readSummary(InputStream source, Wallet budgetsTarget, CategorySpending spending, RollupCube rollups)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source, BUFFER_SIZE));
+        Header header = readHeader(in, budgetsTarget, rollups);
+        List<Category> categories = header.categories();
+        int scale = header.scale();
+        boolean[] windowed = new boolean[categories.size()];
+        boolean anyWindowed = false;
+        // A merging rename leaves several ids for one category, and the rows of every one of them fill its window.
+        Set<Category> started = new HashSet<>();
+        for (int id = 0; id < windowed.length; id++) {
+            Budget budget = budgetsTarget.getBudgets().get(categories.get(id));
+            windowed[id] = budget != null && (started.contains(budget.getCategory())
+                    || spending.track(budget.getCategory(), budget.getPeriod()));
+            if (windowed[id]) {
+                started.add(budget.getCategory());
+                anyWindowed = true;
+            }
+        }
+
+        long[] totals = new long[ROW_COUNT_SLOT + 1];
+        boolean hasRollups = header.version() >= VERSION;
+        if (hasRollups) {
+            for (TransactionType type : TYPES) {
+                totals[type.ordinal()] = rollups.total(type).minorUnits();
+            }
+            totals[ROW_COUNT_SLOT] = rollups.count();
+            rollups.addExpensesTo(spending);
+            if (!anyWindowed) {
+                // Every total the summary needs is in the rollups, so the rows are never read.
+                return totals;
+            }
+        }
+
+        long[] expenseByCategory = new long[categories.size()];
+        int expense = TransactionType.EXPENSE.ordinal();
+        int size = (int) readVarLong(in);
+        long day = 0;
+        for (int row = 0; row < size; row++) {
+            int type = in.readUnsignedByte();
+            int categoryIndex = (int) readVarLong(in) - 1;
+            long amount = unZigZag(readVarLong(in));
+            day += unZigZag(readVarLong(in));
+            if (!hasRollups) {
+                totals[type] = Math.addExact(totals[type], amount);
+                Category category = categoryIndex == TransactionColumns.NO_CATEGORY ? null : categories.get(categoryIndex);
+                rollups.add(TYPES[type], category, LocalDate.ofEpochDay(day), Money.ofMinor(amount, scale));
+            }
+            if (type == expense && categoryIndex != TransactionColumns.NO_CATEGORY) {
+                expenseByCategory[categoryIndex] = Math.addExact(expenseByCategory[categoryIndex], amount);
+                if (windowed[categoryIndex]) {
+                    spending.addToWindow(categories.get(categoryIndex), Money.ofMinor(amount, scale), (int) day);
+                }
+            }
+            in.skipNBytes(readVarLong(in));
+        }
+        if (hasRollups) {
+            return totals;
+        }
+        for (int id = 0; id < expenseByCategory.length; id++) {
+            spending.add(categories.get(id), Money.ofMinor(expenseByCategory[id], scale));
+        }
+        for (int type = 0; type < ROW_COUNT_SLOT; type++) {
+            totals[type] = Money.ofMinor(totals[type], scale).withScale(Money.DEFAULT_SCALE).minorUnits();
+        }
+        totals[ROW_COUNT_SLOT] = size;
+        return totals;
+    }
+
+    private record Header(int version, int scale, List<Category> categories) {
+    }
+
+    // Rollups are only decoded into a non-null target; a full load rebuilds them from the rows.
+    private Header readHeader(DataInputStream in, Wallet wallet, RollupCube rollups) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary wallet snapshot.");
+        }
+        int version = in.readUnsignedByte();
+        int scale;
+        if (version == CENTS_VERSION) {
+            scale = CENTS_SCALE;
+        } else if (version >= SCALE_VERSION && version <= VERSION) {
+            scale = in.readUnsignedByte();
+        } else {
+            throw new IOException("Unsupported binary wallet snapshot version: " + version);
+        }
+        wallet.getBudgets().clear();
+        wallet.setJournalSequence(readVarLong(in));
+
+        int categoryCount = (int) readVarLong(in);
+        List<Category> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(new Category(readString(in)));
+        }
+
+        int budgetCount = (int) readVarLong(in);
+        for (int i = 0; i < budgetCount; i++) {
+            Category category = new Category(readString(in));
+            Money limit = Money.ofMinor(unZigZag(readVarLong(in)), scale);
+            // Spent is derived from the expense rows; the stored value is only kept for older readers.
+            readVarLong(in);
+            BudgetPeriod period = version >= PERIOD_VERSION ? BudgetPeriod.parse(readString(in)) : BudgetPeriod.LIFETIME;
+            wallet.getBudgets().put(category, new Budget(category, limit, period));
+        }
+
+        if (version >= VERSION) {
+            int cellCount = (int) readVarLong(in);
+            for (int i = 0; i < cellCount; i++) {
+                long month = unZigZag(readVarLong(in));
+                int categoryRef = (int) readVarLong(in);
+                TransactionType type = TYPES[in.readUnsignedByte()];
+                long sum = unZigZag(readVarLong(in));
+                long count = readVarLong(in);
+                if (rollups != null) {
+                    rollups.add(new RollupCube.Cell(YearMonth.of((int) Math.floorDiv(month, 12), (int) Math.floorMod(month, 12) + 1),
+                            categoryRef == 0 ? null : categories.get(categoryRef - 1).getName(), type,
+                            Money.ofMinor(sum, scale), count));
+                }
+            }
+        }
+        return new Header(version, scale, categories);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint in binary wallet snapshot.");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -1,50 +1,115 @@
 package com.daniil.financemanager.domain.service;
 
 import com.daniil.financemanager.domain.model.Budget;
+import com.daniil.financemanager.domain.model.BudgetPeriod;
 import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
 import com.daniil.financemanager.domain.model.User;
 import com.daniil.financemanager.domain.model.Wallet;
 import com.daniil.financemanager.domain.repository.WalletRepository;
+import com.daniil.financemanager.metrics.BudgetEvent;
+import com.daniil.financemanager.metrics.Operation;
+import com.daniil.financemanager.metrics.OperationMetrics;
 
 import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
 
 public class BudgetService {
     private final WalletRepository walletRepository;
     private final CategoryService categoryService;
+    private final OperationMetrics metrics;
 
     public BudgetService(WalletRepository walletRepository, CategoryService categoryService) {
+        this(walletRepository, categoryService, new OperationMetrics());
+    }
+
+    public BudgetService(WalletRepository walletRepository, CategoryService categoryService, OperationMetrics metrics) {
         this.walletRepository = walletRepository;
         this.categoryService = categoryService;
+        this.metrics = metrics;
     }
 
-    public void setBudget(User user, String categoryName, double limit) throws IllegalArgumentException {
-        if (limit <= 0) {
-            throw new IllegalArgumentException("Budget limit must be a positive number.");
-        }
+    public void setBudget(User user, String categoryName, Money limit) throws IllegalArgumentException {
+        setBudget(user, categoryName, limit, BudgetPeriod.LIFETIME);
+    }
 
-        Wallet wallet = walletRepository.findByUser(user)
-                .orElseThrow(() -> new NoSuchElementException("Wallet not found for the current user."));
+    public void setBudget(User user, String categoryName, Money limit, BudgetPeriod period)
+            throws IllegalArgumentException {
+        long started = System.nanoTime();
+        BudgetEvent event = new BudgetEvent();
+        event.begin();
+        try {
+            if (limit.signum() <= 0) {
+                throw new IllegalArgumentException("Budget limit must be a positive number.");
+            }
 
-        Category category = categoryService.getOrCreateCategory(categoryName);
+            Wallet wallet = walletRepository.findByUser(user)
+                    .orElseThrow(() -> new NoSuchElementException("Wallet not found for the current user."));
 
-        Budget newBudget = new Budget(category, limit);
-        wallet.getBudgets().put(category, newBudget);
-    }
+            Category category = categoryService.getOrCreateCategory(categoryName);
 
-    public void updateBudget(User user, String categoryName, double newLimit) throws IllegalArgumentException, NoSuchElementException {
-        if (newLimit <= 0) {
-            throw new IllegalArgumentException("Budget limit must be positive.");
+            Budget newBudget = new Budget(category, limit, period);
+            Lock lock = wallet.getLock().writeLock();
+            lock.lock();
+            try {
+                wallet.getBudgets().put(category, newBudget);
+            } finally {
+                lock.unlock();
+            }
+            commit(event, "set", user, newBudget, wallet);
+        } finally {
+            metrics.record(Operation.BUDGET_SET, started);
         }
+    }
 
-        Wallet wallet = walletRepository.findByUser(user)
-                .orElseThrow(() -> new NoSuchElementException("Wallet not found."));
-        Category category = categoryService.getOrCreateCategory(categoryName);
+    public void updateBudget(User user, String categoryName, Money newLimit) throws IllegalArgumentException, NoSuchElementException {
+        updateBudget(user, categoryName, newLimit, null);
+    }
+
+    // A null period keeps the one the budget already has.
+    public void updateBudget(User user, String categoryName, Money newLimit, BudgetPeriod period)
+            throws IllegalArgumentException, NoSuchElementException {
+        long started = System.nanoTime();
+        BudgetEvent event = new BudgetEvent();
+        event.begin();
+        try {
+            if (newLimit.signum() <= 0) {
+                throw new IllegalArgumentException("Budget limit must be positive.");
+            }
+
+            Wallet wallet = walletRepository.findByUser(user)
+                    .orElseThrow(() -> new NoSuchElementException("Wallet not found."));
+            Category category = categoryService.getOrCreateCategory(categoryName);
 
-        Budget budget = wallet.getBudgets().get(category);
-        if (budget == null) {
-            throw new NoSuchElementException("Budget for category not found.");
+            Budget updated;
+            Lock lock = wallet.getLock().writeLock();
+            lock.lock();
+            try {
+                Budget budget = wallet.getBudgets().get(category);
+                if (budget == null) {
+                    throw new NoSuchElementException("Budget for category not found.");
+                }
+
+                updated = new Budget(category, newLimit, period == null ? budget.getPeriod() : period);
+                wallet.getBudgets().put(category, updated);
+            } finally {
+                lock.unlock();
+            }
+            commit(event, "update", user, updated, wallet);
+        } finally {
+            metrics.record(Operation.BUDGET_UPDATE, started);
         }
+    }
 
-        wallet.getBudgets().put(category, new Budget(category, newLimit));
+    private static void commit(BudgetEvent event, String operation, User user, Budget budget, Wallet wallet) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.login = user.getLogin();
+            event.category = budget.getCategory().getName();
+            event.limit = budget.getLimit().toBigDecimal().doubleValue();
+            event.period = budget.getPeriod().toString();
+            event.walletSize = wallet.getTransactions().size();
+            event.commit();
+        }
     }
 }
@@ -1,74 +1,97 @@
 package com.daniil.financemanager.domain.service;
 
-import com.daniil.financemanager.domain.model.Budget;
 import com.daniil.financemanager.domain.model.Category;
-import com.daniil.financemanager.domain.model.Transaction;
 import com.daniil.financemanager.domain.model.Wallet;
 import com.daniil.financemanager.domain.repository.CategoryRepository;
+import com.daniil.financemanager.metrics.CategoryUpdateEvent;
+import com.daniil.financemanager.metrics.Operation;
+import com.daniil.financemanager.metrics.OperationMetrics;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
 
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final OperationMetrics metrics;
 
     public CategoryService(CategoryRepository categoryRepository) {
+        this(categoryRepository, new OperationMetrics());
+    }
+
+    public CategoryService(CategoryRepository categoryRepository, OperationMetrics metrics) {
         this.categoryRepository = categoryRepository;
+        this.metrics = metrics;
     }
 
     public Category getOrCreateCategory(String name) throws IllegalArgumentException {
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Category name cannot be empty.");
+        long started = System.nanoTime();
+        try {
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("Category name cannot be empty.");
+            }
+            String normalizedName = name.trim();
+
+            return categoryRepository.findByName(normalizedName)
+                    .orElseGet(() -> {
+                        Category newCategory = new Category(normalizedName);
+                        categoryRepository.save(newCategory);
+                        return newCategory;
+                    });
+        } finally {
+            metrics.record(Operation.CATEGORY_GET_OR_CREATE, started);
         }
-        String normalizedName = name.trim();
+    }
 
-        return categoryRepository.findByName(normalizedName)
-                .orElseGet(() -> {
-                    Category newCategory = new Category(normalizedName);
-                    categoryRepository.save(newCategory);
-                    return newCategory;
-                });
+    public Category getCategoryById(int id) throws NoSuchElementException {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Category not found: #" + id));
     }
 
     public void updateCategory(String oldName, String newName, Wallet wallet) throws IllegalArgumentException {
-        if (newName == null || newName.trim().isEmpty()) {
-            throw new IllegalArgumentException("New category name cannot be empty.");
-        }
-
-        Category oldCategory = categoryRepository.findByName(oldName)
-                .orElseThrow(() -> new NoSuchElementException("Category not found: " + oldName));
+        long started = System.nanoTime();
+        CategoryUpdateEvent event = new CategoryUpdateEvent();
+        event.begin();
+        try {
+            if (newName == null || newName.trim().isEmpty()) {
+                throw new IllegalArgumentException("New category name cannot be empty.");
+            }
 
-        Category updatedCategory = new Category(newName.trim());
+            Category oldCategory = categoryRepository.findByName(oldName)
+                    .orElseThrow(() -> new NoSuchElementException("Category not found: " + oldName));
 
-        List<Transaction> updatedTransactions = new ArrayList<>();
-        for (Transaction t : wallet.getTransactions()) {
-            if (t.getCategory().getName().equals(oldName)) {
-                updatedTransactions.add(new Transaction(
-                        t.getType(),
-                        updatedCategory,
-                        t.getAmount(),
-                        t.getDescription()
-                ));
-            } else {
-                updatedTransactions.add(t);
+            Category updatedCategory = new Category(newName.trim());
+            Lock lock = wallet.getLock().writeLock();
+            lock.lock();
+            int walletSize;
+            try {
+                wallet.renameCategory(oldCategory, updatedCategory);
+                walletSize = wallet.getTransactions().size();
+            } finally {
+                lock.unlock();
             }
-        }
-        wallet.getTransactions().clear();
-        wallet.getTransactions().addAll(updatedTransactions);
 
-        if (wallet.getBudgets().containsKey(oldCategory)) {
-            Budget budget = wallet.getBudgets().remove(oldCategory);
-            wallet.getBudgets().put(updatedCategory, budget);
+            categoryRepository.delete(oldCategory);
+            categoryRepository.save(updatedCategory);
+            if (event.shouldCommit()) {
+                event.login = wallet.getUser() == null ? null : wallet.getUser().getLogin();
+                event.oldName = oldCategory.getName();
+                event.newName = updatedCategory.getName();
+                event.walletSize = walletSize;
+                event.commit();
+            }
+        } finally {
+            metrics.record(Operation.CATEGORY_UPDATE, started);
         }
-
-        categoryRepository.delete(oldCategory);
-        categoryRepository.save(updatedCategory);
     }
 
     public void deleteCategory(String name) {
-        Category category = categoryRepository.findByName(name)
-                .orElseThrow(() -> new NoSuchElementException("Category not found."));
-        categoryRepository.delete(category);
+        long started = System.nanoTime();
+        try {
+            Category category = categoryRepository.findByName(name)
+                    .orElseThrow(() -> new NoSuchElementException("Category not found."));
+            categoryRepository.delete(category);
+        } finally {
+            metrics.record(Operation.CATEGORY_DELETE, started);
+        }
     }
 }
@@ -0,0 +1,45 @@
+package com.daniil.financemanager.domain.service;
+
+import java.util.List;
+
+public class CsvImportReport {
+    private final int acceptedRows;
+    private final List<Long> rejectedLines;
+    private final long bytesRead;
+    private final long elapsedNanos;
+
+    public CsvImportReport(int acceptedRows, List<Long> rejectedLines, long bytesRead, long elapsedNanos) {
+        this.acceptedRows = acceptedRows;
+        this.rejectedLines = rejectedLines;
+        this.bytesRead = bytesRead;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getAcceptedRows() {
+        return acceptedRows;
+    }
+
+    public int getRejectedRows() {
+        return rejectedLines.size();
+    }
+
+    public List<Long> getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : (acceptedRows + rejectedLines.size()) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : bytesRead * 1_000.0 / elapsedNanos;
+    }
+}
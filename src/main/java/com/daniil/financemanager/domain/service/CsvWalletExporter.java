@@ -0,0 +1,222 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.TransactionColumns;
+import com.daniil.financemanager.domain.model.TransactionType;
+import com.daniil.financemanager.domain.model.Wallet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+class CsvWalletExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIXED_WIDTH = 64;
+    private static final byte[] NEWLINE = {'\n'};
+    private static final byte[] EMPTY = new byte[0];
+    private static final byte[][] TYPE_NAMES = typeNames();
+    private static final long UNIT = Money.unit(Money.DEFAULT_SCALE);
+
+    int export(Wallet wallet, OutputStream target, boolean gzip, LocalDate start, LocalDate end) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(target, BUFFER_SIZE) : null;
+        RowWriter writer = new RowWriter(wallet.getTransactionColumns(), compressed != null ? compressed : target);
+        writer.write(CsvWalletImporter.HEADER.getBytes(StandardCharsets.UTF_8));
+        writer.write(NEWLINE);
+
+        if (start == null || end == null) {
+            TransactionColumns columns = wallet.getTransactionColumns();
+            for (int row = 0; row < columns.size(); row++) {
+                writer.writeRow(row);
+            }
+        } else {
+            try {
+                wallet.forEachRowBetween(start, end, row -> {
+                    try {
+                        writer.writeRow(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        target.flush();
+        return writer.rows;
+    }
+
+    private static byte[][] typeNames() {
+        TransactionType[] types = TransactionType.values();
+        byte[][] names = new byte[types.length][];
+        for (TransactionType type : types) {
+            names[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    private static final class RowWriter {
+        private final TransactionColumns columns;
+        private final OutputStream out;
+        private final List<byte[]> categoryNames = new ArrayList<>();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] date = new byte[10];
+        private int position;
+        private int cachedEpochDay = Integer.MIN_VALUE;
+        private byte[] cachedWideDate;
+        private int rows;
+
+        private RowWriter(TransactionColumns columns, OutputStream out) {
+            this.columns = columns;
+            this.out = out;
+        }
+
+        private void writeRow(int row) throws IOException {
+            ensureCapacity(MAX_FIXED_WIDTH);
+            write(TYPE_NAMES[columns.type(row).ordinal()]);
+            buffer[position++] = ',';
+            write(categoryName(columns.categoryIndex(row)));
+            ensureCapacity(MAX_FIXED_WIDTH);
+            buffer[position++] = ',';
+            writeMinorUnits(columns.amountMinorUnits(row));
+            buffer[position++] = ',';
+            writeDescription(row);
+            ensureCapacity(MAX_FIXED_WIDTH);
+            buffer[position++] = ',';
+            writeDate(columns.epochDay(row));
+            buffer[position++] = '\n';
+            rows++;
+        }
+
+        private byte[] categoryName(int categoryIndex) {
+            if (categoryIndex == TransactionColumns.NO_CATEGORY) {
+                return EMPTY;
+            }
+            while (categoryNames.size() <= categoryIndex) {
+                categoryNames.add(null);
+            }
+            byte[] name = categoryNames.get(categoryIndex);
+            if (name == null) {
+                Category category = columns.categories().get(categoryIndex);
+                name = category.getName().getBytes(StandardCharsets.UTF_8);
+                categoryNames.set(categoryIndex, name);
+            }
+            return name;
+        }
+
+        private void writeMinorUnits(long amount) {
+            if (amount < 0) {
+                buffer[position++] = '-';
+            }
+            writeDigits(Math.abs(amount / UNIT), 1);
+            if (Money.DEFAULT_SCALE > 0) {
+                buffer[position++] = '.';
+                writeDigits(Math.abs(amount % UNIT), Money.DEFAULT_SCALE);
+            }
+        }
+
+        private void writeDigits(long value, int minWidth) {
+            int width = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                width++;
+            }
+            width = Math.max(width, minWidth);
+            for (int i = position + width - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += width;
+        }
+
+        private void writeDescription(int row) throws IOException {
+            int length = columns.descriptionLength(row);
+            if (length > buffer.length - MAX_FIXED_WIDTH) {
+                byte[] large = new byte[length];
+                columns.copyDescription(row, large, 0);
+                replaceCommas(large, 0, length);
+                write(large);
+                return;
+            }
+            ensureCapacity(length);
+            columns.copyDescription(row, buffer, position);
+            replaceCommas(buffer, position, length);
+            position += length;
+        }
+
+        private static void replaceCommas(byte[] bytes, int from, int length) {
+            for (int i = from; i < from + length; i++) {
+                if (bytes[i] == ',') {
+                    bytes[i] = ';';
+                }
+            }
+        }
+
+        private void writeDate(int epochDay) throws IOException {
+            if (epochDay != cachedEpochDay) {
+                cachedEpochDay = epochDay;
+                cachedWideDate = formatDate(epochDay) ? null
+                        : LocalDate.ofEpochDay(epochDay).toString().getBytes(StandardCharsets.US_ASCII);
+            }
+            write(cachedWideDate != null ? cachedWideDate : date);
+        }
+
+        private boolean formatDate(int epochDay) {
+            long z = epochDay + 719468L;
+            long era = Math.floorDiv(z, 146097L);
+            long dayOfEra = z - era * 146097L;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long shiftedMonth = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+            int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+            if (year < 0 || year > 9999) {
+                return false;
+            }
+            date[0] = (byte) ('0' + year / 1000);
+            date[1] = (byte) ('0' + year / 100 % 10);
+            date[2] = (byte) ('0' + year / 10 % 10);
+            date[3] = (byte) ('0' + year % 10);
+            date[4] = '-';
+            date[5] = (byte) ('0' + month / 10);
+            date[6] = (byte) ('0' + month % 10);
+            date[7] = '-';
+            date[8] = (byte) ('0' + day / 10);
+            date[9] = (byte) ('0' + day % 10);
+            return true;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                flush();
+                if (bytes.length > buffer.length - MAX_FIXED_WIDTH) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(int bytes) throws IOException {
+            if (bytes > buffer.length - position) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
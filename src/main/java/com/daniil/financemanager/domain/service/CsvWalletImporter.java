@@ -0,0 +1,372 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.TransactionType;
+import com.daniil.financemanager.domain.model.Wallet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+class CsvWalletImporter {
+    static final String HEADER = "Type,Category,Amount,Description,Date";
+    private static final byte[] INCOME = "INCOME".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXPENSE = "EXPENSE".getBytes(StandardCharsets.US_ASCII);
+    private static final long DEFAULT_MIN_CHUNK_BYTES = 4L * 1024 * 1024;
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    private static final int BOUNDARY_PROBE_BYTES = 4096;
+    private static final long UNIT = Money.unit(Money.DEFAULT_SCALE);
+    private static final long MAX_WHOLE_UNITS = Long.MAX_VALUE / UNIT / 10;
+
+    private final ForkJoinPool pool;
+    private final long minChunkBytes;
+
+    CsvWalletImporter(ForkJoinPool pool) {
+        this(pool, DEFAULT_MIN_CHUNK_BYTES);
+    }
+
+    CsvWalletImporter(ForkJoinPool pool, long minChunkBytes) {
+        this.pool = pool;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    CsvImportReport importInto(Wallet wallet, Path path) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = checkHeader(channel);
+
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (long[] bounds : splitIntoChunks(channel, dataStart, size)) {
+                tasks.add(new ChunkTask(channel, bounds[0], bounds[1]));
+            }
+            if (tasks.size() == 1) {
+                tasks.getFirst().invoke();
+            } else {
+                pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+            }
+
+            int accepted = 0;
+            List<Long> rejectedLines = new ArrayList<>();
+            long firstLine = 2;
+            for (ChunkTask task : tasks) {
+                ChunkResult result = task.join();
+                for (int i = 0; i < result.size; i++) {
+                    wallet.addTransaction(result.types[i], result.categories[i], Money.ofMinor(result.amounts[i]),
+                            result.descriptions[i], LocalDate.ofEpochDay(result.epochDays[i]));
+                }
+                accepted += result.size;
+                for (int i = 0; i < result.rejectedCount; i++) {
+                    rejectedLines.add(firstLine + result.rejectedLineOffsets[i]);
+                }
+                firstLine += result.lineCount;
+            }
+            return new CsvImportReport(accepted, rejectedLines, size, System.nanoTime() - started);
+        }
+    }
+
+    private long checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(HEADER.length() + 2);
+        channel.read(probe, 0);
+        byte[] bytes = Arrays.copyOf(probe.array(), probe.position());
+        int end = 0;
+        while (end < bytes.length && bytes[end] != '\n') {
+            end++;
+        }
+        int lineEnd = end > 0 && bytes[end - 1] == '\r' ? end - 1 : end;
+        if (!new String(bytes, 0, lineEnd, StandardCharsets.UTF_8).equals(HEADER)) {
+            throw new RuntimeException("Invalid CSV format.");
+        }
+        return Math.min(end + 1L, channel.size());
+    }
+
+    private List<long[]> splitIntoChunks(FileChannel channel, long start, long size) throws IOException {
+        long length = size - start;
+        int parallelism = Math.max(1, pool.getParallelism());
+        long chunkCount = Math.max(1, Math.min(parallelism * 4L, length / minChunkBytes));
+        chunkCount = Math.max(chunkCount, (length + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long target = Math.max(1, length / chunkCount);
+
+        List<long[]> chunks = new ArrayList<>();
+        long chunkStart = start;
+        while (chunkStart < size) {
+            long chunkEnd = chunkStart + target >= size ? size : nextLineStart(channel, chunkStart + target, size);
+            chunks.add(new long[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(new long[]{start, start});
+        }
+        return chunks;
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_BYTES);
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static final class ChunkTask extends RecursiveTask<ChunkResult> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        private ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            ChunkResult result = new ChunkResult();
+            if (end <= start) {
+                return result;
+            }
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new RuntimeException("Error importing CSV: " + e.getMessage());
+            }
+
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart && !parseLine(buffer, lineStart, contentEnd, result)) {
+                    result.reject(result.lineCount);
+                }
+                result.lineCount++;
+                lineStart = lineEnd + 1;
+            }
+            return result;
+        }
+
+        private boolean parseLine(ByteBuffer line, int from, int to, ChunkResult result) {
+            int[] commas = new int[4];
+            int found = 0;
+            for (int i = from; i < to; i++) {
+                if (line.get(i) == ',') {
+                    if (found == commas.length) {
+                        return false;
+                    }
+                    commas[found++] = i;
+                }
+            }
+            if (found != commas.length) {
+                return false;
+            }
+
+            TransactionType type = parseType(line, from, commas[0]);
+            if (type == null) {
+                return false;
+            }
+            String categoryName = text(line, commas[0] + 1, commas[1]);
+            long amount = parseMinorUnits(line, commas[1] + 1, commas[2]);
+            if (amount == Long.MIN_VALUE) {
+                return false;
+            }
+            long epochDay = parseEpochDay(line, commas[3] + 1, to);
+            if (epochDay == Long.MIN_VALUE) {
+                return false;
+            }
+            String description = text(line, commas[2] + 1, commas[3]).replace(';', ',');
+
+            result.add(type, result.category(categoryName), amount, description, (int) epochDay);
+            return true;
+        }
+
+        private static TransactionType parseType(ByteBuffer line, int from, int to) {
+            int start = skipBlanks(line, from, to);
+            int end = trimBlanks(line, start, to);
+            if (matches(line, start, end, INCOME)) {
+                return TransactionType.INCOME;
+            }
+            if (matches(line, start, end, EXPENSE)) {
+                return TransactionType.EXPENSE;
+            }
+            return null;
+        }
+
+        private static long parseMinorUnits(ByteBuffer line, int from, int to) {
+            int i = skipBlanks(line, from, to);
+            int end = trimBlanks(line, i, to);
+            boolean negative = false;
+            if (i < end && (line.get(i) == '-' || line.get(i) == '+')) {
+                negative = line.get(i) == '-';
+                i++;
+            }
+            long whole = 0;
+            int digits = 0;
+            while (i < end && line.get(i) >= '0' && line.get(i) <= '9') {
+                whole = whole * 10 + (line.get(i) - '0');
+                if (whole > MAX_WHOLE_UNITS) {
+                    return Long.MIN_VALUE;
+                }
+                i++;
+                digits++;
+            }
+            long fraction = 0;
+            int fractionDigits = 0;
+            boolean roundUp = false;
+            if (i < end && line.get(i) == '.') {
+                i++;
+                while (i < end && line.get(i) >= '0' && line.get(i) <= '9') {
+                    if (fractionDigits < Money.DEFAULT_SCALE) {
+                        fraction = fraction * 10 + (line.get(i) - '0');
+                    } else if (fractionDigits == Money.DEFAULT_SCALE) {
+                        roundUp = line.get(i) >= '5';
+                    }
+                    fractionDigits++;
+                    i++;
+                }
+            }
+            if (i != end || digits + fractionDigits == 0) {
+                return Long.MIN_VALUE;
+            }
+            for (int digit = fractionDigits; digit < Money.DEFAULT_SCALE; digit++) {
+                fraction *= 10;
+            }
+            long amount = whole * UNIT + fraction + (roundUp ? 1 : 0);
+            return negative ? -amount : amount;
+        }
+
+        private static long parseEpochDay(ByteBuffer line, int from, int to) {
+            int start = skipBlanks(line, from, to);
+            int end = trimBlanks(line, start, to);
+            if (end - start != 10 || line.get(start + 4) != '-' || line.get(start + 7) != '-') {
+                return Long.MIN_VALUE;
+            }
+            int year = digits(line, start, 4);
+            int month = digits(line, start + 5, 2);
+            int day = digits(line, start + 8, 2);
+            if (year < 0 || month < 0 || day < 0) {
+                return Long.MIN_VALUE;
+            }
+            try {
+                return LocalDate.of(year, month, day).toEpochDay();
+            } catch (DateTimeException e) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        private static int digits(ByteBuffer line, int from, int count) {
+            int value = 0;
+            for (int i = from; i < from + count; i++) {
+                byte b = line.get(i);
+                if (b < '0' || b > '9') {
+                    return -1;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private static String text(ByteBuffer line, int from, int to) {
+            int start = skipBlanks(line, from, to);
+            int end = trimBlanks(line, start, to);
+            byte[] bytes = new byte[end - start];
+            line.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static boolean matches(ByteBuffer line, int from, int to, byte[] expected) {
+            if (to - from != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (line.get(from + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int skipBlanks(ByteBuffer line, int from, int to) {
+            while (from < to && (line.get(from) == ' ' || line.get(from) == '\t')) {
+                from++;
+            }
+            return from;
+        }
+
+        private static int trimBlanks(ByteBuffer line, int from, int to) {
+            while (to > from && (line.get(to - 1) == ' ' || line.get(to - 1) == '\t')) {
+                to--;
+            }
+            return to;
+        }
+    }
+
+    private static final class ChunkResult {
+        private final Map<String, Category> categoryCache = new HashMap<>();
+        private TransactionType[] types = new TransactionType[64];
+        private Category[] categories = new Category[64];
+        private long[] amounts = new long[64];
+        private String[] descriptions = new String[64];
+        private int[] epochDays = new int[64];
+        private int size;
+        private int[] rejectedLineOffsets = new int[8];
+        private int rejectedCount;
+        private int lineCount;
+
+        private Category category(String name) {
+            return categoryCache.computeIfAbsent(name, Category::new);
+        }
+
+        private void add(TransactionType type, Category category, long amount, String description, int epochDay) {
+            if (size == types.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+            }
+            types[size] = type;
+            categories[size] = category;
+            amounts[size] = amount;
+            descriptions[size] = description;
+            epochDays[size] = epochDay;
+            size++;
+        }
+
+        private void reject(int lineOffset) {
+            if (rejectedCount == rejectedLineOffsets.length) {
+                rejectedLineOffsets = Arrays.copyOf(rejectedLineOffsets, rejectedCount * 2);
+            }
+            rejectedLineOffsets[rejectedCount++] = lineOffset;
+        }
+    }
+}
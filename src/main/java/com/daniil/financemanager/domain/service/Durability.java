@@ -0,0 +1,12 @@
+package com.daniil.financemanager.domain.service;
+
+// How far a snapshot save goes before returning. Every level replaces the file by atomic rename, so a crash
+// leaves either the old or the new snapshot; the levels differ in whether it survives a power loss.
+public enum Durability {
+    // Rename only: safe against a process crash, the OS flushes the data when it likes.
+    NONE,
+    // Forced to disk, with concurrent saves sharing one commit pass and one directory sync.
+    GROUP,
+    // Forced to disk and the directory synced by every save on its own.
+    SYNC
+}
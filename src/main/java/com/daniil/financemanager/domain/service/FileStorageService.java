@@ -1,6 +1,12 @@
 package com.daniil.financemanager.domain.service;
 
 import com.daniil.financemanager.domain.model.*;
+import com.daniil.financemanager.metrics.CsvEvent;
+import com.daniil.financemanager.metrics.Operation;
+import com.daniil.financemanager.metrics.OperationMetrics;
+import com.daniil.financemanager.metrics.StorageEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -9,94 +15,414 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
 
 public class FileStorageService {
     private static final String STORAGE_DIR = "data";
-    private final ObjectMapper objectMapper;
+    public static final long DEFAULT_JOURNAL_COMPACTION_BYTES = 1024 * 1024;
+    private final BinaryWalletFormat binaryFormat;
+    private final StreamingWalletReader streamingReader;
+    private final CsvWalletImporter csvImporter;
+    private final CsvWalletExporter csvExporter;
+    private final SnapshotFormat snapshotFormat;
+    private final SnapshotCommitter snapshotCommitter;
+    private final long journalCompactionBytes;
+    private final OperationMetrics metrics;
 
     public FileStorageService() {
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this(SnapshotFormat.JSON, DEFAULT_JOURNAL_COMPACTION_BYTES);
     }
 
-    private Path getUserFilePath(String login) {
-        return Path.of(STORAGE_DIR, login + ".json");
+    public FileStorageService(long journalCompactionBytes) {
+        this(SnapshotFormat.JSON, journalCompactionBytes);
+    }
+
+    public FileStorageService(SnapshotFormat snapshotFormat) {
+        this(snapshotFormat, DEFAULT_JOURNAL_COMPACTION_BYTES);
+    }
+
+    public FileStorageService(SnapshotFormat snapshotFormat, long journalCompactionBytes) {
+        this(snapshotFormat, journalCompactionBytes, new OperationMetrics());
+    }
+
+    public FileStorageService(SnapshotFormat snapshotFormat, long journalCompactionBytes, OperationMetrics metrics) {
+        this(snapshotFormat, journalCompactionBytes, Durability.GROUP, metrics);
+    }
+
+    public FileStorageService(SnapshotFormat snapshotFormat, long journalCompactionBytes, Durability durability,
+                              OperationMetrics metrics) {
+        this.snapshotFormat = snapshotFormat;
+        this.snapshotCommitter = new SnapshotCommitter(durability, metrics);
+        this.journalCompactionBytes = journalCompactionBytes;
+        this.metrics = metrics;
+        this.binaryFormat = new BinaryWalletFormat();
+        this.csvImporter = new CsvWalletImporter(ForkJoinPool.commonPool());
+        this.csvExporter = new CsvWalletExporter();
+        this.streamingReader = new StreamingWalletReader(new JsonFactory());
+    }
+
+    // Only JSON snapshot writes need databind, so short-lived read-only runs never pay for building the mapper.
+    private static class JsonMapperHolder {
+        private static final ObjectMapper MAPPER = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    }
+
+    // Users restored from the user index carry their stored wallet location; everyone else lives under data/.
+    private static Path walletLocation(User user) {
+        return user.getWalletLocation() != null ? user.getWalletLocation() : Path.of(STORAGE_DIR, user.getLogin());
+    }
+
+    private static Path walletFile(User user, String suffix) {
+        Path location = walletLocation(user);
+        return location.resolveSibling(location.getFileName() + suffix);
+    }
+
+    private Path getUserFilePath(User user, SnapshotFormat format) {
+        return walletFile(user, format.getExtension());
+    }
+
+    private Path findSnapshot(User user) throws IOException {
+        Path latest = null;
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            Path candidate = getUserFilePath(user, format);
+            if (Files.exists(candidate) && (latest == null
+                    || Files.getLastModifiedTime(candidate).compareTo(Files.getLastModifiedTime(latest)) > 0)) {
+                latest = candidate;
+            }
+        }
+        return latest;
+    }
+
+    private WalletJournal getJournal(User user) {
+        return WalletJournal.open(walletFile(user, ".journal"));
     }
 
     public void saveUserData(User user) {
+        commitSnapshot(user, null);
+    }
+
+    // Write-behind saving encodes the wallet while it is locked and commits the bytes after releasing the lock,
+    // so the disk write and sync do not hold up the wallet.
+    EncodedSnapshot encodeSnapshot(User user) {
+        Wallet wallet = user.getWallet();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
         try {
-            Files.createDirectories(Path.of(STORAGE_DIR));
-            Path filePath = getUserFilePath(user.getLogin());
-            objectMapper.writeValue(filePath.toFile(), user.getWallet());
+            writeSnapshot(wallet, bytes);
         } catch (IOException e) {
             throw new RuntimeException("Error while saving user data: " + e.getMessage());
         }
+        return new EncodedSnapshot(bytes.toByteArray(), wallet.getJournalSequence(), wallet.getTransactions().size());
+    }
+
+    void saveEncodedSnapshot(User user, EncodedSnapshot snapshot) {
+        commitSnapshot(user, snapshot);
+    }
+
+    private void commitSnapshot(User user, EncodedSnapshot encoded) {
+        long started = System.nanoTime();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long written = 0;
+        try {
+            Path filePath = getUserFilePath(user, snapshotFormat);
+            Files.createDirectories(filePath.toAbsolutePath().getParent());
+            if (encoded == null) {
+                snapshotCommitter.write(filePath, out -> writeSnapshot(user.getWallet(), out));
+            } else {
+                snapshotCommitter.write(filePath, out -> out.write(encoded.bytes()));
+            }
+            for (SnapshotFormat format : SnapshotFormat.values()) {
+                if (format != snapshotFormat) {
+                    Files.deleteIfExists(getUserFilePath(user, format));
+                }
+            }
+            if (encoded == null) {
+                getJournal(user).delete();
+            } else {
+                deleteJournalCoveredBy(user, encoded.journalSequence());
+            }
+            written = Files.size(filePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while saving user data: " + e.getMessage());
+        } finally {
+            int rows = encoded == null ? user.getWallet().getTransactions().size() : encoded.rows();
+            metrics.record(Operation.STORAGE_SAVE, started, rows, 0, written);
+            commit(event, "save", user, snapshotFormat, rows, written);
+        }
+    }
+
+    private void writeSnapshot(Wallet wallet, OutputStream out) throws IOException {
+        if (snapshotFormat == SnapshotFormat.BINARY) {
+            binaryFormat.write(wallet, out);
+        } else {
+            JsonMapperHolder.MAPPER.writeValue(out, wallet);
+        }
+    }
+
+    // Records journaled after the snapshot was encoded are not in it; replay skips the covered ones, so keep the file.
+    // Journal appends hold the write lock, so the read lock is enough to keep one from slipping in before the delete.
+    private void deleteJournalCoveredBy(User user, long journalSequence) throws IOException {
+        Lock lock = user.getWallet().getLock().readLock();
+        lock.lock();
+        try {
+            if (user.getWallet().getJournalSequence() == journalSequence) {
+                getJournal(user).delete();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    record EncodedSnapshot(byte[] bytes, long journalSequence, int rows) {
     }
 
     public Wallet loadUserData(User user) {
-        Path filePath = getUserFilePath(user.getLogin());
-        if (!Files.exists(filePath)) {
-            Wallet wallet = new Wallet(user);
-            user.getWallet().getBudgets().forEach((c, b) -> wallet.getBudgets().put(c, b));
+        long started = System.nanoTime();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long read = 0;
+        SnapshotFormat format = null;
+        Wallet wallet = user.getWallet();
+        try {
+            Path filePath = findSnapshot(user);
+            read = storedBytes(filePath, user);
+            format = formatOf(filePath);
+            readWallet(filePath, format, wallet, user);
             return wallet;
+        } catch (IOException e) {
+            throw new RuntimeException("Error while loading user data: " + e.getMessage());
+        } finally {
+            int rows = wallet.getTransactions().size();
+            metrics.record(Operation.STORAGE_LOAD, started, rows, read, 0);
+            commit(event, "load", user, format, rows, read);
+        }
+    }
+
+    private void readWallet(Path filePath, SnapshotFormat format, Wallet wallet, User user) throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            try (InputStream in = Files.newInputStream(filePath)) {
+                binaryFormat.read(in, wallet);
+            }
+        } else if (format == SnapshotFormat.JSON) {
+            streamingReader.read(filePath, wallet);
         }
+        getJournal(user).replay(wallet);
+        wallet.recalculateTotals();
+    }
 
+    public WalletSummary loadWalletSummary(User user) {
+        long started = System.nanoTime();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long read = 0;
+        int rows = 0;
+        SnapshotFormat format = null;
+        Wallet scratch = new Wallet(user);
+        CategorySpending spending = new CategorySpending();
+        RollupCube rollups = new RollupCube();
         try {
-            Wallet loadedWallet = objectMapper.readValue(filePath.toFile(), Wallet.class);
-            loadedWallet.setUser(user);
-            return loadedWallet;
+            long[] totals = new long[BinaryWalletFormat.ROW_COUNT_SLOT + 1];
+            Path filePath = findSnapshot(user);
+            read = storedBytes(filePath, user);
+            format = formatOf(filePath);
+            if (format == SnapshotFormat.BINARY) {
+                try (InputStream in = Files.newInputStream(filePath)) {
+                    totals = binaryFormat.readSummary(in, scratch, spending, rollups);
+                }
+            } else if (format == SnapshotFormat.JSON) {
+                totals = streamingReader.readSummary(filePath, scratch, spending, rollups);
+            }
+            getJournal(user).replay(scratch);
+            for (Budget budget : scratch.getBudgets().values()) {
+                if (filePath != null && !spending.tracks(budget.getCategory(), budget.getPeriod())) {
+                    // A period budget set after the snapshot has no window over the snapshot rows.
+                    Wallet wallet = new Wallet(user);
+                    readWallet(filePath, format, wallet, user);
+                    rows = wallet.getTransactions().size();
+                    return new WalletSummary(wallet.getTotalIncome(), wallet.getTotalExpense(), rows, wallet.getBudgets(),
+                            wallet.getRollups());
+                }
+            }
+
+            Money income = Money.ofMinor(totals[TransactionType.INCOME.ordinal()]).plus(scratch.getTotalIncome());
+            Money expense = Money.ofMinor(totals[TransactionType.EXPENSE.ordinal()]).plus(scratch.getTotalExpense());
+            rows = (int) totals[BinaryWalletFormat.ROW_COUNT_SLOT] + scratch.getTransactions().size();
+            spending.addAll(scratch.getSpending());
+            Map<Category, Budget> budgets = new HashMap<>();
+            scratch.getBudgets().forEach((category, budget) ->
+                    budgets.put(category, new Budget(category, budget.getLimit(), budget.getPeriod(), spending)));
+            rollups.addAll(scratch.getRollups());
+            return new WalletSummary(income, expense, rows, budgets, rollups);
         } catch (IOException e) {
             throw new RuntimeException("Error while loading user data: " + e.getMessage());
+        } finally {
+            metrics.record(Operation.STORAGE_LOAD_SUMMARY, started, rows, read, 0);
+            commit(event, "loadSummary", user, format, rows, read);
         }
     }
 
-    public void exportWalletToCSV(User user) {
-        Path filePath = Path.of(STORAGE_DIR, user.getLogin() + "_report.csv");
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath.toFile()))) {
-            writer.write("Type,Category,Amount,Description,Date\n");
-            for (Transaction t : user.getWallet().getTransactions()) {
-                writer.write(String.format("%s,%s,%.2f,%s,%s\n",
-                        t.getType(),
-                        t.getCategory().getName(),
-                        t.getAmount(),
-                        t.getDescription().replace(",", ";"),
-                        t.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE)));
-            }
+    private long storedBytes(Path snapshot, User user) throws IOException {
+        return (snapshot == null ? 0L : Files.size(snapshot)) + getJournal(user).size();
+    }
+
+    private static SnapshotFormat formatOf(Path snapshot) throws IOException {
+        if (snapshot == null) {
+            return null;
+        }
+        return BinaryWalletFormat.isBinary(snapshot) ? SnapshotFormat.BINARY : SnapshotFormat.JSON;
+    }
+
+    private static void commit(StorageEvent event, String operation, User user, SnapshotFormat format,
+                               long rows, long bytes) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.login = user.getLogin();
+            event.format = format == null ? "NONE" : format.name();
+            event.rows = rows;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    public void appendTransaction(User user, Transaction transaction) {
+        long started = System.nanoTime();
+        WalletJournal journal = getJournal(user);
+        try {
+            metrics.record(Operation.STORAGE_JOURNAL_APPEND, started, 1, 0, journal.appendTransaction(user.getWallet().nextJournalSequence(), transaction));
         } catch (IOException e) {
-            throw new RuntimeException("Error exporting CSV: " + e.getMessage());
+            throw new RuntimeException("Error while writing journal: " + e.getMessage());
         }
+        compactIfNeeded(user, journal);
     }
 
-    public void importWalletFromCSV(User user, String csvFilePath) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFilePath))) {
-            String line = reader.readLine();
-            if (line == null || !line.equals("Type,Category,Amount,Description,Date")) {
-                throw new RuntimeException("Invalid CSV format.");
-            }
+    public void appendBudget(User user, Budget budget) {
+        long started = System.nanoTime();
+        WalletJournal journal = getJournal(user);
+        try {
+            metrics.record(Operation.STORAGE_JOURNAL_APPEND, started, 1, 0, journal.appendBudget(user.getWallet().nextJournalSequence(), budget));
+        } catch (IOException e) {
+            throw new RuntimeException("Error while writing journal: " + e.getMessage());
+        }
+        compactIfNeeded(user, journal);
+    }
+
+    public void appendCategoryRename(User user, String oldName, String newName) {
+        long started = System.nanoTime();
+        WalletJournal journal = getJournal(user);
+        try {
+            metrics.record(Operation.STORAGE_JOURNAL_APPEND, started, 1, 0, journal.appendCategoryRename(user.getWallet().nextJournalSequence(), oldName, newName));
+        } catch (IOException e) {
+            throw new RuntimeException("Error while writing journal: " + e.getMessage());
+        }
+        compactIfNeeded(user, journal);
+    }
 
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length != 5) continue;
+    private void compactIfNeeded(User user, WalletJournal journal) {
+        try {
+            if (journal.size() >= journalCompactionBytes) {
+                saveUserData(user);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error while compacting journal: " + e.getMessage());
+        }
+    }
 
-                try {
-                    TransactionType type = TransactionType.valueOf(parts[0].trim());
-                    Category category = new Category(parts[1].trim());
-                    double amount = Double.parseDouble(parts[2].trim());
-                    String description = parts[3].trim().replace(";", ",");
-                    LocalDate date = LocalDate.parse(parts[4].trim(), DateTimeFormatter.ISO_LOCAL_DATE);
+    public int exportWalletToCSV(User user) {
+        return exportWalletToCSV(user, null, null);
+    }
 
-                    Transaction transaction = new Transaction(type, category, amount, description);
-                    transaction.setDate(date);
+    public int exportWalletToCSV(User user, LocalDate start, LocalDate end) {
+        return exportWalletToCSV(user, Path.of(STORAGE_DIR, user.getLogin() + "_report.csv"), start, end);
+    }
 
-                    user.getWallet().addTransaction(transaction);
-                } catch (Exception ignored) {
-                }
+    public int exportWalletToCSV(User user, Path target, LocalDate start, LocalDate end) {
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
             }
+            try (OutputStream out = Files.newOutputStream(target)) {
+                return exportWalletToCSV(user, out, target.toString().endsWith(".gz"), start, end);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error exporting CSV: " + e.getMessage());
+        }
+    }
+
+    public int exportWalletToCSV(User user, OutputStream target, boolean gzip, LocalDate start, LocalDate end) {
+        long started = System.nanoTime();
+        CsvEvent event = new CsvEvent();
+        event.begin();
+        CountingOutputStream out = new CountingOutputStream(target);
+        int rows = 0;
+        try {
+            rows = csvExporter.export(user.getWallet(), out, gzip, start, end);
+            return rows;
+        } catch (IOException e) {
+            throw new RuntimeException("Error exporting CSV: " + e.getMessage());
+        } finally {
+            metrics.record(Operation.CSV_EXPORT, started, rows, 0, out.count);
+            commit(event, "export", user, rows, 0, out.count);
+        }
+    }
+
+    public CsvImportReport importWalletFromCSV(User user, String csvFilePath) {
+        long started = System.nanoTime();
+        CsvEvent event = new CsvEvent();
+        event.begin();
+        CsvImportReport report = null;
+        // The write-behind flusher may be encoding this wallet, so the rows and totals change under its write lock.
+        Lock lock = user.getWallet().getLock().writeLock();
+        lock.lock();
+        try {
+            report = csvImporter.importInto(user.getWallet(), Path.of(csvFilePath));
+            user.getWallet().recalculateTotals();
+            return report;
         } catch (IOException e) {
             throw new RuntimeException("Error importing CSV: " + e.getMessage());
+        } finally {
+            lock.unlock();
+            int accepted = report == null ? 0 : report.getAcceptedRows();
+            long read = report == null ? 0 : report.getBytesRead();
+            metrics.record(Operation.CSV_IMPORT, started, accepted, read, 0);
+            commit(event, "import", user, accepted, report == null ? 0 : report.getRejectedRows(), read);
+        }
+    }
+
+    private static void commit(CsvEvent event, String operation, User user, long rows, long rejectedRows, long bytes) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.login = user.getLogin();
+            event.rows = rows;
+            event.rejectedRows = rejectedRows;
+            event.bytes = bytes;
+            event.walletSize = user.getWallet().getTransactions().size();
+            event.commit();
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
         }
     }
 }
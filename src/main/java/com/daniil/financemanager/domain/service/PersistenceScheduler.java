@@ -0,0 +1,187 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.metrics.Operation;
+import com.daniil.financemanager.metrics.OperationMetrics;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+// Write-behind saving: mutations only mark the wallet dirty, and a background thread writes one snapshot per
+// wallet once the oldest change is a flush interval old or enough changes have piled up.
+public class PersistenceScheduler implements Closeable {
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(2);
+    public static final int DEFAULT_FLUSH_THRESHOLD = 64;
+
+    private final FileStorageService fileStorageService;
+    private final long flushIntervalNanos;
+    private final int flushThreshold;
+    private final OperationMetrics metrics;
+    private final Map<String, DirtyWallet> dirtyWallets = new LinkedHashMap<>();
+    // Held for a whole drain-and-save pass, so flush() returns only after an in-progress background pass is on disk.
+    // It also keeps saves in order now that they run outside the wallet lock.
+    private final Object flushing = new Object();
+    private long pendingChanges;
+    private Thread flusher;
+    private boolean closed;
+
+    public PersistenceScheduler(FileStorageService fileStorageService) {
+        this(fileStorageService, DEFAULT_FLUSH_INTERVAL, DEFAULT_FLUSH_THRESHOLD, new OperationMetrics());
+    }
+
+    public PersistenceScheduler(FileStorageService fileStorageService, Duration flushInterval, int flushThreshold,
+                                OperationMetrics metrics) {
+        if (flushInterval.isNegative() || flushInterval.isZero() || flushThreshold <= 0) {
+            throw new IllegalArgumentException("Flush interval and threshold must be positive.");
+        }
+        this.fileStorageService = fileStorageService;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.flushThreshold = flushThreshold;
+        this.metrics = metrics;
+    }
+
+    public void markDirty(User user) {
+        markDirty(user, 1);
+    }
+
+    public void markDirty(User user, int changes) {
+        if (!enqueue(user, changes)) {
+            // Past shutdown there is no flusher left to pick the change up.
+            DirtyWallet late = new DirtyWallet(user, System.nanoTime());
+            late.changes = changes;
+            // Saves stay serialized, so an older encoding never lands on top of a newer one.
+            synchronized (flushing) {
+                save(late);
+            }
+        }
+    }
+
+    public synchronized int getDirtyWallets() {
+        return dirtyWallets.size();
+    }
+
+    public synchronized long getPendingChanges() {
+        return pendingChanges;
+    }
+
+    public int flush() {
+        synchronized (flushing) {
+            List<DirtyWallet> batch = drain();
+            for (DirtyWallet dirty : batch) {
+                save(dirty);
+            }
+            return batch.size();
+        }
+    }
+
+    public void registerShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "finance-manager-flush-on-exit"));
+    }
+
+    @Override
+    public void close() {
+        Thread running;
+        synchronized (this) {
+            closed = true;
+            running = flusher;
+            notifyAll();
+        }
+        if (running != null && running != Thread.currentThread()) {
+            try {
+                running.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void flushLoop() {
+        while (awaitFlush()) {
+            flush();
+        }
+    }
+
+    // Waits until the oldest change has aged past the interval, enough changes are pending, or the scheduler closes.
+    private synchronized boolean awaitFlush() {
+        while (!closed) {
+            long waitNanos = flushIntervalNanos;
+            if (!dirtyWallets.isEmpty()) {
+                long oldest = dirtyWallets.values().iterator().next().since;
+                waitNanos = oldest + flushIntervalNanos - System.nanoTime();
+                if (waitNanos <= 0 || pendingChanges >= flushThreshold) {
+                    return true;
+                }
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private synchronized List<DirtyWallet> drain() {
+        List<DirtyWallet> batch = new ArrayList<>(dirtyWallets.values());
+        dirtyWallets.clear();
+        pendingChanges = 0;
+        return batch;
+    }
+
+    private synchronized boolean enqueue(User user, int changes) {
+        if (closed) {
+            return false;
+        }
+        DirtyWallet dirty = dirtyWallets.computeIfAbsent(user.getLogin(), login -> new DirtyWallet(user, System.nanoTime()));
+        dirty.changes += changes;
+        pendingChanges += changes;
+        if (flusher == null) {
+            flusher = Thread.ofPlatform().name("finance-manager-flusher").daemon().start(this::flushLoop);
+        } else if (pendingChanges >= flushThreshold) {
+            notifyAll();
+        }
+        return true;
+    }
+
+    // Only the encoding holds the wallet, and only as a reader; the write and sync happen after it is released.
+    private void save(DirtyWallet dirty) {
+        long started = System.nanoTime();
+        try {
+            FileStorageService.EncodedSnapshot snapshot;
+            Lock lock = dirty.user.getWallet().getLock().readLock();
+            lock.lock();
+            try {
+                snapshot = fileStorageService.encodeSnapshot(dirty.user);
+            } finally {
+                lock.unlock();
+            }
+            fileStorageService.saveEncodedSnapshot(dirty.user, snapshot);
+            metrics.record(Operation.STORAGE_FLUSH_LAG, dirty.since);
+        } catch (RuntimeException e) {
+            // Requeued with a fresh timestamp, so the retry waits an interval instead of spinning.
+            boolean requeued = enqueue(dirty.user, dirty.changes);
+            System.err.println("Error flushing wallet of " + dirty.user.getLogin() + ": " + e.getMessage()
+                    + (requeued ? " (will retry)" : ""));
+        } finally {
+            metrics.record(Operation.STORAGE_FLUSH, started, dirty.changes, 0, 0);
+        }
+    }
+
+    private static final class DirtyWallet {
+        private final User user;
+        private final long since;
+        private int changes;
+
+        private DirtyWallet(User user, long since) {
+            this.user = user;
+            this.since = since;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.metrics.Operation;
+import com.daniil.financemanager.metrics.OperationMetrics;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Writes a snapshot next to its target and renames it into place, so readers never see a half-written file.
+// Under GROUP durability a saver that finds a commit pass running queues its file, and the next pass forces,
+// renames and directory-syncs everything queued at once: the forces are issued together so the file system folds
+// them into one journal commit, and each directory is synced once per pass instead of once per file.
+final class SnapshotCommitter {
+    interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // Temp files this much older than the committer are left over from a crash between write and rename; younger
+    // ones may still belong to a save in flight in another process.
+    static final Duration STALE_TEMP_AGE = Duration.ofMinutes(1);
+
+    private final Durability durability;
+    private final OperationMetrics metrics;
+    private final long startedMillis = System.currentTimeMillis();
+    private final Set<Path> sweptDirectories = ConcurrentHashMap.newKeySet();
+    private final Object group = new Object();
+    private List<PendingSnapshot> queued = new ArrayList<>();
+    private boolean committing;
+
+    SnapshotCommitter(Durability durability, OperationMetrics metrics) {
+        this.durability = durability;
+        this.metrics = metrics;
+    }
+
+    Durability durability() {
+        return durability;
+    }
+
+    void write(Path target, Body body) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        if (sweptDirectories.add(directory)) {
+            removeStaleTemps(directory);
+        }
+        // A unique name per save, so concurrent saves of the same target never write into each other's file.
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        PendingSnapshot pending = new PendingSnapshot(channel, temp, target);
+        try {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            body.writeTo(out);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        switch (durability) {
+            case NONE -> {
+                channel.close();
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+            }
+            case SYNC -> commitOrFail(List.of(pending));
+            case GROUP -> groupCommit(pending);
+        }
+        if (pending.error != null) {
+            throw pending.error;
+        }
+    }
+
+    private void groupCommit(PendingSnapshot pending) {
+        List<PendingSnapshot> batch;
+        boolean interrupted = false;
+        synchronized (group) {
+            queued.add(pending);
+            while (committing && !pending.done) {
+                try {
+                    group.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (pending.done) {
+                batch = null;
+            } else {
+                committing = true;
+                batch = queued;
+                queued = new ArrayList<>();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (batch == null) {
+            return;
+        }
+
+        try {
+            commitOrFail(batch);
+        } finally {
+            synchronized (group) {
+                for (PendingSnapshot each : batch) {
+                    each.done = true;
+                }
+                committing = false;
+                group.notifyAll();
+            }
+        }
+    }
+
+    // Followers only learn the outcome through their error field, so an unexpected failure is reported to all of them.
+    private void commitOrFail(List<PendingSnapshot> batch) {
+        try {
+            commit(batch);
+        } catch (RuntimeException e) {
+            for (PendingSnapshot each : batch) {
+                if (each.error == null) {
+                    each.error = new IOException("Snapshot commit failed: " + e.getMessage(), e);
+                }
+                discard(each);
+            }
+        }
+    }
+
+    // Data first, then the renames, then one sync per directory so the renames themselves are durable.
+    private void commit(List<PendingSnapshot> batch) {
+        long started = System.nanoTime();
+        forceAll(batch);
+        Set<Path> directories = new LinkedHashSet<>();
+        for (PendingSnapshot each : batch) {
+            if (each.error != null) {
+                continue;
+            }
+            try {
+                Files.move(each.temp, each.target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                directories.add(each.target.toAbsolutePath().getParent());
+            } catch (IOException e) {
+                each.error = e;
+                discard(each);
+            }
+        }
+        for (Path directory : directories) {
+            try {
+                syncDirectory(directory);
+            } catch (IOException e) {
+                for (PendingSnapshot each : batch) {
+                    if (each.error == null && directory.equals(each.target.toAbsolutePath().getParent())) {
+                        each.error = e;
+                    }
+                }
+            }
+        }
+        metrics.record(Operation.STORAGE_SYNC, started, batch.size(), 0, 0);
+    }
+
+    // One force per file is unavoidable, but forcing them one after another costs a journal commit each; issued
+    // concurrently they complete together.
+    private static void forceAll(List<PendingSnapshot> batch) {
+        if (batch.size() == 1) {
+            force(batch.getFirst());
+            return;
+        }
+        try (ExecutorService forcing = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PendingSnapshot each : batch) {
+                forcing.execute(() -> force(each));
+            }
+        }
+    }
+
+    private static void force(PendingSnapshot pending) {
+        try (FileChannel channel = pending.channel) {
+            channel.force(true);
+        } catch (IOException e) {
+            pending.error = e;
+            discard(pending);
+        }
+    }
+
+    private void removeStaleTemps(Path directory) {
+        long cutoff = startedMillis - STALE_TEMP_AGE.toMillis();
+        try (DirectoryStream<Path> temps = Files.newDirectoryStream(directory, "*.tmp")) {
+            for (Path temp : temps) {
+                if (Files.getLastModifiedTime(temp).toMillis() < cutoff) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException e) {
+            // Leftovers only waste space; the save itself does not depend on the sweep.
+            System.err.println("Error removing stale snapshot temp files in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static void discard(PendingSnapshot pending) {
+        try {
+            pending.channel.close();
+            Files.deleteIfExists(pending.temp);
+        } catch (IOException e) {
+            if (pending.error != null) {
+                pending.error.addSuppressed(e);
+            }
+        }
+    }
+
+    private static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (UnsupportedOperationException | AccessDeniedException e) {
+            // Some platforms (Windows) cannot open a directory as a channel; the rename is as durable as it gets there.
+        }
+    }
+
+    private static final class PendingSnapshot {
+        private final FileChannel channel;
+        private final Path temp;
+        private final Path target;
+        private IOException error;
+        private boolean done;
+
+        private PendingSnapshot(FileChannel channel, Path temp, Path target) {
+            this.channel = channel;
+            this.temp = temp;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.daniil.financemanager.domain.service;
+
+public enum SnapshotFormat {
+    JSON(".json"),
+    BINARY(".wallet");
+
+    private final String extension;
+
+    SnapshotFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,260 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.*;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+class StreamingWalletReader {
+    private final JsonFactory jsonFactory;
+
+    StreamingWalletReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    void read(Path path, Wallet wallet) throws IOException {
+        wallet.getTransactions().clear();
+        wallet.getBudgets().clear();
+        try (JsonParser parser = jsonFactory.createParser(path.toFile())) {
+            parse(parser, wallet, wallet::addTransaction);
+        }
+    }
+
+    long[] readSummary(Path path, Wallet budgetsTarget, CategorySpending spending, RollupCube rollups)
+            throws IOException {
+        long[] totals = new long[BinaryWalletFormat.ROW_COUNT_SLOT + 1];
+        boolean hasRollups = false;
+        try (JsonParser parser = jsonFactory.createParser(path.toFile())) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            fields:
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "budgets" -> {
+                        readBudgets(parser, budgetsTarget);
+                        for (Budget budget : budgetsTarget.getBudgets().values()) {
+                            spending.track(budget.getCategory(), budget.getPeriod());
+                        }
+                    }
+                    case "journalSequence" -> budgetsTarget.setJournalSequence(parser.getLongValue());
+                    case "rollups" -> {
+                        readRollups(parser, rollups);
+                        hasRollups = true;
+                    }
+                    case "transactions" -> {
+                        boolean windowed = hasWindows(budgetsTarget);
+                        if (hasRollups && !windowed) {
+                            // Every total the summary needs is in the rollups, so the rows are never parsed.
+                            break fields;
+                        }
+                        sumTransactions(parser, totals, spending, windowed, hasRollups ? null : rollups);
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (hasRollups) {
+            for (TransactionType type : TransactionType.values()) {
+                totals[type.ordinal()] = rollups.total(type).minorUnits();
+            }
+            totals[BinaryWalletFormat.ROW_COUNT_SLOT] = rollups.count();
+            rollups.addExpensesTo(spending);
+        }
+        return totals;
+    }
+
+    private void parse(JsonParser parser, Wallet wallet, TransactionSink sink) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        Map<String, Category> categories = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "transactions" -> readTransactions(parser, categories, sink);
+                case "budgets" -> readBudgets(parser, wallet);
+                case "journalSequence" -> wallet.setJournalSequence(parser.getLongValue());
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readTransactions(JsonParser parser, Map<String, Category> categories, TransactionSink sink)
+            throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            TransactionType type = null;
+            Category category = null;
+            Money amount = Money.ZERO;
+            String description = null;
+            LocalDate date = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "type" -> type = TransactionType.valueOf(parser.getText());
+                    case "category" -> {
+                        String name = readCategoryName(parser);
+                        category = name == null ? null : categories.computeIfAbsent(name, Category::new);
+                    }
+                    case "amount" -> amount = readMoney(parser);
+                    case "description" -> description = parser.currentToken() == JsonToken.VALUE_NULL
+                            ? null : parser.getText();
+                    case "date" -> date = readDate(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            sink.accept(type, category, amount, description, date == null ? LocalDate.now() : date);
+        }
+    }
+
+    private static boolean hasWindows(Wallet wallet) {
+        return wallet.getBudgets().values().stream().anyMatch(budget -> !budget.getPeriod().isLifetime());
+    }
+
+    // With a null rollups target the snapshot already carried them, and the rows only fill budget windows.
+    private void sumTransactions(JsonParser parser, long[] totals, CategorySpending spending, boolean windowed,
+                                 RollupCube rollups) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        Map<String, Category> categories = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        boolean needsDate = windowed || rollups != null;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            TransactionType type = null;
+            Category category = null;
+            Money amount = Money.ZERO;
+            LocalDate date = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "type" -> type = TransactionType.valueOf(parser.getText());
+                    case "category" -> {
+                        String name = readCategoryName(parser);
+                        category = name == null ? null : categories.computeIfAbsent(name, Category::new);
+                    }
+                    case "amount" -> amount = readMoney(parser);
+                    case "date" -> {
+                        if (needsDate) {
+                            date = readDate(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (date == null) {
+                date = today;
+            }
+            if (rollups == null) {
+                if (type == TransactionType.EXPENSE && category != null) {
+                    spending.addToWindow(category, amount, (int) date.toEpochDay());
+                }
+                continue;
+            }
+            totals[type.ordinal()] = Math.addExact(totals[type.ordinal()], amount.minorUnits());
+            if (type == TransactionType.EXPENSE && category != null) {
+                spending.add(category, amount, (int) date.toEpochDay());
+            }
+            rollups.add(type, category, date, amount);
+            totals[BinaryWalletFormat.ROW_COUNT_SLOT]++;
+        }
+    }
+
+    private void readRollups(JsonParser parser, RollupCube rollups) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            YearMonth month = null;
+            String category = null;
+            TransactionType type = null;
+            Money sum = Money.ZERO;
+            long count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "month" -> month = YearMonth.parse(parser.getText());
+                    case "category" -> category = parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "type" -> type = TransactionType.valueOf(parser.getText());
+                    case "sum" -> sum = readMoney(parser);
+                    case "count" -> count = parser.getLongValue();
+                    default -> parser.skipChildren();
+                }
+            }
+            rollups.add(new RollupCube.Cell(month, category, type, sum, count));
+        }
+    }
+
+    private void readBudgets(JsonParser parser, Wallet wallet) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Category category = new Category(parser.currentName());
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            Money limit = Money.ZERO;
+            BudgetPeriod period = BudgetPeriod.LIFETIME;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "limit" -> limit = readMoney(parser);
+                    case "period" -> period = BudgetPeriod.parse(parser.getText());
+                    default -> parser.skipChildren();
+                }
+            }
+            wallet.getBudgets().put(category, new Budget(category, limit, period));
+        }
+    }
+
+    private Money readMoney(JsonParser parser) throws IOException {
+        try {
+            return parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+                    ? Money.of(parser.getLongValue())
+                    : Money.of(parser.getDecimalValue());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new IOException("Malformed wallet file: " + e.getMessage());
+        }
+    }
+
+    private String readCategoryName(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("name")) {
+                name = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name;
+    }
+
+    private LocalDate readDate(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            int year = parser.nextIntValue(0);
+            int month = parser.nextIntValue(0);
+            int day = parser.nextIntValue(0);
+            parser.nextToken();
+            return LocalDate.of(year, month, day);
+        }
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : LocalDate.parse(parser.getText());
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Malformed wallet file: expected " + expected + " but found " + actual);
+        }
+    }
+}
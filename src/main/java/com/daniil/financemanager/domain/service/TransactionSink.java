@@ -0,0 +1,12 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.TransactionType;
+
+import java.time.LocalDate;
+
+@FunctionalInterface
+interface TransactionSink {
+    void accept(TransactionType type, Category category, Money amount, String description, LocalDate date);
+}
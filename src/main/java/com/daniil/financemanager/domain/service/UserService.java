@@ -13,7 +13,7 @@ public class UserService {
         this.walletRepository = walletRepository;
     }
 
-    public void signUp(String login, String password) {
+    public synchronized void signUp(String login, String password) {
         if (userRepository.findByLogin(login).isPresent()) {
             throw new IllegalArgumentException("User with this login already exists");
         }
@@ -33,6 +33,14 @@ public class UserService {
     }
 
     public User findUserByLogin(String login) {
-        return userRepository.findByLogin(login).orElse(null);
+        return userRepository.findByLogin(login).map(this::withRegisteredWallet).orElse(null);
+    }
+
+    // Users restored from a persistent repository come back with wallets the wallet repository has never seen.
+    private User withRegisteredWallet(User user) {
+        if (walletRepository.findByUser(user).isEmpty()) {
+            walletRepository.save(user.getWallet());
+        }
+        return user;
     }
 }
@@ -0,0 +1,234 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+class WalletJournal {
+    private static final byte LEGACY_TRANSACTION = 1;
+    private static final byte LEGACY_BUDGET = 2;
+    private static final byte UTF_CATEGORY_RENAME = 3;
+    private static final byte UTF_TRANSACTION = 4;
+    private static final byte UTF_BUDGET = 5;
+    private static final byte TRANSACTION = 6;
+    private static final byte BUDGET = 7;
+    private static final byte CATEGORY_RENAME = 8;
+    private static final int NULL_STRING = -1;
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    // Every storage service in the process appends through the same journal, so deleting it closes the only channel.
+    private static final Map<Path, WalletJournal> OPEN_JOURNALS = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final boolean syncEachRecord;
+    private FileChannel channel;
+
+    private WalletJournal(Path path, boolean syncEachRecord) {
+        this.path = path;
+        this.syncEachRecord = syncEachRecord;
+    }
+
+    static WalletJournal open(Path path) {
+        return OPEN_JOURNALS.computeIfAbsent(path.toAbsolutePath().normalize(), p -> new WalletJournal(p, true));
+    }
+
+    int appendTransaction(long sequence, Transaction transaction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = startRecord(bytes, sequence, TRANSACTION);
+        out.writeByte(transaction.getType().ordinal());
+        writeString(out, transaction.getCategory() == null ? null : transaction.getCategory().getName());
+        writeMoney(out, transaction.getAmount());
+        writeString(out, transaction.getDescription());
+        out.writeLong(transaction.getDate().toEpochDay());
+        return write(bytes.toByteArray());
+    }
+
+    int appendBudget(long sequence, Budget budget) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = startRecord(bytes, sequence, BUDGET);
+        writeString(out, budget.getCategory().getName());
+        writeMoney(out, budget.getLimit());
+        writeString(out, budget.getPeriod().toString());
+        return write(bytes.toByteArray());
+    }
+
+    int appendCategoryRename(long sequence, String oldName, String newName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = startRecord(bytes, sequence, CATEGORY_RENAME);
+        writeString(out, oldName);
+        writeString(out, newName);
+        return write(bytes.toByteArray());
+    }
+
+    int replay(Wallet wallet) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32C crc = new CRC32C();
+        int applied = 0;
+        int lastGoodOffset = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            DataInputStream record = new DataInputStream(
+                    new ByteArrayInputStream(buffer.array(), buffer.position(), length));
+            buffer.position(buffer.position() + length);
+            lastGoodOffset = buffer.position();
+
+            long sequence = record.readLong();
+            if (sequence <= wallet.getJournalSequence()) {
+                continue;
+            }
+            apply(record, wallet);
+            wallet.setJournalSequence(sequence);
+            applied++;
+        }
+
+        if (lastGoodOffset < buffer.capacity()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(lastGoodOffset);
+            }
+        }
+        return applied;
+    }
+
+    long size() throws IOException {
+        return Files.exists(path) ? Files.size(path) : 0L;
+    }
+
+    synchronized void delete() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private void apply(DataInputStream record, Wallet wallet) throws IOException {
+        byte kind = record.readByte();
+        switch (kind) {
+            case TRANSACTION, UTF_TRANSACTION, LEGACY_TRANSACTION -> {
+                TransactionType type = TYPES[record.readByte()];
+                String categoryName = readString(record, kind);
+                Category category = categoryName == null ? null : new Category(categoryName);
+                Money amount = kind == LEGACY_TRANSACTION ? legacyMoney(record.readDouble()) : readMoney(record);
+                String description = readString(record, kind);
+                LocalDate date = LocalDate.ofEpochDay(record.readLong());
+                wallet.addTransaction(type, category, amount, description, date);
+            }
+            case BUDGET, UTF_BUDGET, LEGACY_BUDGET -> {
+                Category category = new Category(readString(record, kind));
+                Money limit = kind == LEGACY_BUDGET ? legacyMoney(record.readDouble()) : readMoney(record);
+                // Budget records written before periods existed end after the limit.
+                BudgetPeriod period = record.available() > 0 ? BudgetPeriod.parse(readString(record, kind)) : BudgetPeriod.LIFETIME;
+                wallet.getBudgets().put(category, new Budget(category, limit, period));
+            }
+            case CATEGORY_RENAME, UTF_CATEGORY_RENAME -> {
+                Category oldCategory = new Category(readString(record, kind));
+                Category newCategory = new Category(readString(record, kind));
+                wallet.renameCategory(oldCategory, newCategory);
+            }
+            default -> throw new IllegalStateException("Unknown journal record type: " + kind);
+        }
+    }
+
+    private static void writeMoney(DataOutputStream out, Money amount) throws IOException {
+        out.writeByte(amount.scale());
+        out.writeLong(amount.minorUnits());
+    }
+
+    private static Money readMoney(DataInputStream record) throws IOException {
+        int scale = record.readByte();
+        return Money.ofMinor(record.readLong(), scale);
+    }
+
+    // writeUTF caps strings at 64 KiB of modified UTF-8, so current records store an int length and plain UTF-8 bytes.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream record, byte kind) throws IOException {
+        if (kind < TRANSACTION) {
+            return record.readUTF();
+        }
+        int length = record.readInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Money legacyMoney(double amount) {
+        return Money.of(BigDecimal.valueOf(amount));
+    }
+
+    private DataOutputStream startRecord(ByteArrayOutputStream bytes, long sequence, byte kind) throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(sequence);
+        out.writeByte(kind);
+        return out;
+    }
+
+    private synchronized int write(byte[] payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+
+        // A journal removed behind our back (another process compacting, a wiped data directory) gets a fresh file.
+        if (channel != null && !Files.exists(path)) {
+            channel.close();
+            channel = null;
+        }
+        if (channel == null) {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (syncEachRecord) {
+            channel.force(false);
+        }
+        return record.limit();
+    }
+}
@@ -2,96 +2,279 @@ package com.daniil.financemanager.domain.service;
 
 import com.daniil.financemanager.domain.model.*;
 import com.daniil.financemanager.domain.repository.WalletRepository;
+import com.daniil.financemanager.metrics.Operation;
+import com.daniil.financemanager.metrics.OperationMetrics;
+import com.daniil.financemanager.metrics.WalletWriteEvent;
 
+import java.io.PrintStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
 
 public class WalletService {
     private final WalletRepository walletRepository;
+    private final boolean verifyTotals;
+    private final PrintStream notices;
+    private final OperationMetrics metrics;
 
     public WalletService(WalletRepository walletRepository) {
+        this(walletRepository, false);
+    }
+
+    public WalletService(WalletRepository walletRepository, boolean verifyTotals) {
+        this(walletRepository, verifyTotals, System.out);
+    }
+
+    public WalletService(WalletRepository walletRepository, boolean verifyTotals, PrintStream notices) {
+        this(walletRepository, verifyTotals, notices, new OperationMetrics());
+    }
+
+    public WalletService(WalletRepository walletRepository, boolean verifyTotals, PrintStream notices,
+                         OperationMetrics metrics) {
         this.walletRepository = walletRepository;
+        this.verifyTotals = verifyTotals;
+        this.notices = notices;
+        this.metrics = metrics;
     }
 
-    public void addExpense(Wallet wallet, double amount, Category category, String description) {
-        Transaction transaction = new Transaction(TransactionType.EXPENSE, category, amount, description);
-        wallet.addTransaction(transaction);
+    public void addExpense(Wallet wallet, Money amount, Category category, String description) {
+        long started = System.nanoTime();
+        WalletWriteEvent event = new WalletWriteEvent();
+        event.begin();
+        Lock lock = wallet.getLock().writeLock();
+        lock.lock();
+        try {
+            recordExpense(wallet, amount, category, description);
+        } finally {
+            int walletSize = wallet.getTransactions().size();
+            lock.unlock();
+            metrics.record(Operation.WALLET_ADD_EXPENSE, started);
+            commit(event, "addExpense", wallet, category, amount, walletSize);
+        }
+    }
+
+    private void recordExpense(Wallet wallet, Money amount, Category category, String description) {
+        wallet.addTransaction(TransactionType.EXPENSE, category, amount, description, LocalDate.now());
 
         Budget budget = wallet.getBudgets().get(category);
         if (budget != null) {
-            budget.addExpense(amount);
-            double spent = budget.getSpent();
-            double limit = budget.getLimit();
+            Money spent = budget.getSpent();
+            Money limit = budget.getLimit();
 
-            if (spent > limit) {
-                System.out.printf("Budget exceeded for category '%s': Spent %.2f / Limit %.2f\n",
+            if (spent.compareTo(limit) > 0) {
+                notices.printf("Budget exceeded for category '%s': Spent %s / Limit %s\n",
                         category.getName(), spent, limit);
-            } else if (spent >= 0.8 * limit) {
-                System.out.printf("Approaching budget limit for category '%s': Spent %.2f / Limit %.2f\n",
+            } else if (spent.times(5).compareTo(limit.times(4)) >= 0) {
+                notices.printf("Approaching budget limit for category '%s': Spent %s / Limit %s\n",
                         category.getName(), spent, limit);
             }
         }
 
-        double totalIncome = getTotalIncome(wallet);
-        double totalExpense = getTotalExpense(wallet);
-        if (totalExpense > totalIncome) {
-            System.out.printf("Warning: Total expenses (%.2f) exceed total income (%.2f)!\n",
+        Money totalIncome = totalIncome(wallet);
+        Money totalExpense = totalExpense(wallet);
+        if (totalExpense.compareTo(totalIncome) > 0) {
+            notices.printf("Warning: Total expenses (%s) exceed total income (%s)!\n",
                     totalExpense, totalIncome);
         }
 
-        if (totalIncome - totalExpense <= 0) {
-            System.out.println("Notice: Your wallet balance is zero or negative!");
+        if (totalIncome.compareTo(totalExpense) <= 0) {
+            notices.println("Notice: Your wallet balance is zero or negative!");
         }
 
         walletRepository.save(wallet);
     }
 
-    public void addIncome(Wallet wallet, double amount, Category category, String description) {
-        Transaction transaction = new Transaction(TransactionType.INCOME, category, amount, description);
-        wallet.addTransaction(transaction);
+    public void addIncome(Wallet wallet, Money amount, Category category, String description) {
+        long started = System.nanoTime();
+        WalletWriteEvent event = new WalletWriteEvent();
+        event.begin();
+        Lock lock = wallet.getLock().writeLock();
+        lock.lock();
+        try {
+            recordIncome(wallet, amount, category, description);
+        } finally {
+            int walletSize = wallet.getTransactions().size();
+            lock.unlock();
+            metrics.record(Operation.WALLET_ADD_INCOME, started);
+            commit(event, "addIncome", wallet, category, amount, walletSize);
+        }
+    }
 
-        double totalIncome = getTotalIncome(wallet);
-        double totalExpense = getTotalExpense(wallet);
-        if (totalExpense > totalIncome) {
-            System.out.printf("Warning: Total expenses (%.2f) exceed total income (%.2f)!\n",
+    private static void commit(WalletWriteEvent event, String operation, Wallet wallet, Category category,
+                               Money amount, int walletSize) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.login = wallet.getUser() == null ? null : wallet.getUser().getLogin();
+            event.category = category == null ? null : category.getName();
+            event.amount = amount.toBigDecimal().doubleValue();
+            event.walletSize = walletSize;
+            event.commit();
+        }
+    }
+
+    private void recordIncome(Wallet wallet, Money amount, Category category, String description) {
+        wallet.addTransaction(TransactionType.INCOME, category, amount, description, LocalDate.now());
+
+        Money totalIncome = totalIncome(wallet);
+        Money totalExpense = totalExpense(wallet);
+        if (totalExpense.compareTo(totalIncome) > 0) {
+            notices.printf("Warning: Total expenses (%s) exceed total income (%s)!\n",
                     totalExpense, totalIncome);
         }
 
         walletRepository.save(wallet);
     }
 
-    public double getTotalIncome(Wallet wallet) {
-        return wallet.getTransactions().stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    public Money getTotalIncome(Wallet wallet) {
+        long started = System.nanoTime();
+        try {
+            return totalIncome(wallet);
+        } finally {
+            metrics.record(Operation.WALLET_TOTALS, started);
+        }
+    }
+
+    private Money totalIncome(Wallet wallet) {
+        Lock lock = totalsLock(wallet);
+        lock.lock();
+        try {
+            if (verifyTotals) {
+                wallet.verifyTotals();
+            }
+            return wallet.getTotalIncome();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Money getTotalExpense(Wallet wallet) {
+        long started = System.nanoTime();
+        try {
+            return totalExpense(wallet);
+        } finally {
+            metrics.record(Operation.WALLET_TOTALS, started);
+        }
+    }
+
+    private Money totalExpense(Wallet wallet) {
+        Lock lock = totalsLock(wallet);
+        lock.lock();
+        try {
+            if (verifyTotals) {
+                wallet.verifyTotals();
+            }
+            return wallet.getTotalExpense();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public double getTotalExpense(Wallet wallet) {
-        return wallet.getTransactions().stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    // Shared unless totals verification is on, since verifying recalculates the cached totals.
+    public Lock totalsLock(Wallet wallet) {
+        return verifyTotals ? wallet.getLock().writeLock() : wallet.getLock().readLock();
     }
 
     public List<Transaction> getTransactionsByPeriod(Wallet wallet, LocalDate start, LocalDate end) {
-        return wallet.getTransactions().stream()
-                .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(end))
-                .collect(Collectors.toList());
+        long started = System.nanoTime();
+        List<Transaction> result = List.of();
+        Lock lock = wallet.getLock().readLock();
+        lock.lock();
+        try {
+            result = new ArrayList<>(transactionsInRange(wallet, start, end));
+            return result;
+        } finally {
+            lock.unlock();
+            metrics.record(Operation.WALLET_PERIOD_QUERY, started, result.size(), 0, 0);
+        }
     }
 
-    public double getIncomeByCategories(Wallet wallet, List<String> categories) {
-        return wallet.getTransactions().stream()
-                .filter(t -> t.getType() == TransactionType.INCOME && categories.contains(t.getCategory().getName()))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    public List<Transaction> getTransactionsInRange(Wallet wallet, LocalDate start, LocalDate end) {
+        long started = System.nanoTime();
+        List<Transaction> result = List.of();
+        try {
+            result = transactionsInRange(wallet, start, end);
+            return result;
+        } finally {
+            metrics.record(Operation.WALLET_PERIOD_QUERY, started, result.size(), 0, 0);
+        }
     }
 
-    public double getExpenseByCategories(Wallet wallet, List<String> categories) {
-        return wallet.getTransactions().stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE && categories.contains(t.getCategory().getName()))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+    private List<Transaction> transactionsInRange(Wallet wallet, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End date cannot be before start date.");
+        }
+        Lock lock = wallet.getLock().readLock();
+        lock.lock();
+        try {
+            return wallet.getTransactionsBetween(start, end);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Money getIncomeBetween(Wallet wallet, LocalDate start, LocalDate end) {
+        return totalBetween(wallet, TransactionType.INCOME, null, start, end);
+    }
+
+    public Money getExpenseBetween(Wallet wallet, LocalDate start, LocalDate end) {
+        return totalBetween(wallet, TransactionType.EXPENSE, null, start, end);
+    }
+
+    public Money getExpenseBetween(Wallet wallet, Category category, LocalDate start, LocalDate end) {
+        return totalBetween(wallet, TransactionType.EXPENSE, category, start, end);
+    }
+
+    private Money totalBetween(Wallet wallet, TransactionType type, Category category, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End date cannot be before start date.");
+        }
+        long started = System.nanoTime();
+        Lock lock = wallet.getLock().readLock();
+        lock.lock();
+        try {
+            return category == null
+                    ? wallet.sumBetween(type, start, end)
+                    : wallet.sumBetween(type, category, start, end);
+        } finally {
+            lock.unlock();
+            metrics.record(Operation.WALLET_RANGE_TOTALS, started);
+        }
+    }
+
+    public Money getIncomeByCategories(Wallet wallet, List<String> categories) {
+        long started = System.nanoTime();
+        Lock lock = wallet.getLock().readLock();
+        lock.lock();
+        try {
+            return wallet.sumByCategories(TransactionType.INCOME, categories);
+        } finally {
+            lock.unlock();
+            metrics.record(Operation.WALLET_CATEGORY_SUMS, started);
+        }
+    }
+
+    public Money getExpenseByCategories(Wallet wallet, List<String> categories) {
+        long started = System.nanoTime();
+        Lock lock = wallet.getLock().readLock();
+        lock.lock();
+        try {
+            return wallet.sumByCategories(TransactionType.EXPENSE, categories);
+        } finally {
+            lock.unlock();
+            metrics.record(Operation.WALLET_CATEGORY_SUMS, started);
+        }
+    }
+
+    public RollupCube getRollups(Wallet wallet) {
+        long started = System.nanoTime();
+        Lock lock = wallet.getLock().readLock();
+        lock.lock();
+        try {
+            return wallet.getRollups();
+        } finally {
+            lock.unlock();
+            metrics.record(Operation.WALLET_CATEGORY_SUMS, started);
+        }
     }
 }
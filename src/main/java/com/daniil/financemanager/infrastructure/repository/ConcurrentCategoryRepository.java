@@ -0,0 +1,53 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.repository.CategoryRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentCategoryRepository implements CategoryRepository {
+    private final ConcurrentMap<String, Category> categories;
+    private final ConcurrentMap<String, Integer> ids;
+    private final ConcurrentMap<Integer, Category> categoriesById;
+    private final AtomicInteger nextId;
+
+    public ConcurrentCategoryRepository() {
+        this.categories = new ConcurrentHashMap<>();
+        this.ids = new ConcurrentHashMap<>();
+        this.categoriesById = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger();
+    }
+
+    @Override
+    public Optional<Category> findByName(String name) {
+        return Optional.ofNullable(categories.get(Category.normalize(name)));
+    }
+
+    @Override
+    public Optional<Category> findById(int id) {
+        return Optional.ofNullable(categoriesById.get(id));
+    }
+
+    @Override
+    public void save(Category category) {
+        String key = category.getNormalizedName();
+        int id = ids.computeIfAbsent(key, k -> nextId.getAndIncrement());
+        categories.compute(key, (k, previous) -> {
+            category.assignId(id);
+            categoriesById.put(id, category);
+            return category;
+        });
+    }
+
+    @Override
+    public void delete(Category category) {
+        String key = category.getNormalizedName();
+        categories.computeIfPresent(key, (k, previous) -> {
+            categoriesById.remove(ids.get(key));
+            return null;
+        });
+    }
+}
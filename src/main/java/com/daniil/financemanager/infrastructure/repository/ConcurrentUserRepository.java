@@ -0,0 +1,26 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.repository.UserRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class ConcurrentUserRepository implements UserRepository {
+    private final ConcurrentMap<String, User> users;
+
+    public ConcurrentUserRepository() {
+        this.users = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return Optional.ofNullable(users.get(login));
+    }
+
+    @Override
+    public void save(User user) {
+        users.put(user.getLogin(), user);
+    }
+}
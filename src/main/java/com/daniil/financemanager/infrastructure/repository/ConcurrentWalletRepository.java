@@ -0,0 +1,27 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.repository.WalletRepository;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class ConcurrentWalletRepository implements WalletRepository {
+    private final ConcurrentMap<String, Wallet> wallets;
+
+    public ConcurrentWalletRepository() {
+        this.wallets = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Optional<Wallet> findByUser(User user) {
+        return Optional.ofNullable(wallets.get(user.getLogin()));
+    }
+
+    @Override
+    public void save(Wallet wallet) {
+        wallets.put(wallet.getUser().getLogin(), wallet);
+    }
+}
@@ -0,0 +1,164 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.repository.UserRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32C;
+
+// Users persisted in an append-only index of [length][crc32c][login, salt, hash, wallet location, last modified]
+// records, strings as short-prefixed UTF-8; the last record for a login wins. Startup is one sequential read, and
+// User objects (with their empty wallets) are only built when a login is looked up.
+public class FileUserRepository implements UserRepository {
+    public static final Path DEFAULT_INDEX = Path.of("data", "users.idx");
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final Path indexPath;
+    private final ConcurrentMap<String, IndexEntry> entries;
+    private final ConcurrentMap<String, User> users;
+
+    public record IndexEntry(String salt, String passwordHash, String walletLocation, long lastModified) {
+    }
+
+    public FileUserRepository() {
+        this(DEFAULT_INDEX);
+    }
+
+    public FileUserRepository(Path indexPath) {
+        this.indexPath = indexPath;
+        this.entries = new ConcurrentHashMap<>();
+        this.users = new ConcurrentHashMap<>();
+        try {
+            load();
+        } catch (IOException e) {
+            throw new RuntimeException("Error while loading user index: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        IndexEntry entry = entries.get(login);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(users.computeIfAbsent(login,
+                l -> User.withCredentials(l, entry.salt(), entry.passwordHash(), Path.of(entry.walletLocation()))));
+    }
+
+    @Override
+    public synchronized void save(User user) {
+        // Wallet files live next to the index unless the user already has a stored location.
+        Path walletLocation = user.getWalletLocation() != null
+                ? user.getWalletLocation() : indexPath.resolveSibling(user.getLogin());
+        IndexEntry entry = new IndexEntry(user.getSalt(), user.getPassword(), walletLocation.toString(),
+                System.currentTimeMillis());
+        try {
+            append(user.getLogin(), entry);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while writing user index: " + e.getMessage());
+        }
+        user.setWalletLocation(walletLocation);
+        entries.put(user.getLogin(), entry);
+        users.put(user.getLogin(), user);
+    }
+
+    public Optional<IndexEntry> findEntry(String login) {
+        return Optional.ofNullable(entries.get(login));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        CRC32C crc = new CRC32C();
+        int lastGoodOffset = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            int end = buffer.position() + length;
+            String login = readString(buffer);
+            entries.put(login, new IndexEntry(readString(buffer), readString(buffer), readString(buffer), buffer.getLong()));
+            buffer.position(end);
+            lastGoodOffset = end;
+        }
+
+        // A torn tail from a crash mid-signup is cut off so the next append starts on a record boundary.
+        if (lastGoodOffset < buffer.capacity()) {
+            try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                channel.truncate(lastGoodOffset);
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private void append(String login, IndexEntry entry) throws IOException {
+        byte[][] fields = {
+                login.getBytes(StandardCharsets.UTF_8),
+                entry.salt().getBytes(StandardCharsets.UTF_8),
+                entry.passwordHash().getBytes(StandardCharsets.UTF_8),
+                entry.walletLocation().getBytes(StandardCharsets.UTF_8)};
+        int length = Long.BYTES;
+        for (byte[] field : fields) {
+            if (field.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("User index field is too long.");
+            }
+            length += Short.BYTES + field.length;
+        }
+        ByteBuffer payloadBuffer = ByteBuffer.allocate(length);
+        for (byte[] field : fields) {
+            payloadBuffer.putShort((short) field.length).put(field);
+        }
+        payloadBuffer.putLong(entry.lastModified());
+        byte[] payload = payloadBuffer.array();
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+
+        if (indexPath.getParent() != null) {
+            Files.createDirectories(indexPath.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        }
+    }
+}
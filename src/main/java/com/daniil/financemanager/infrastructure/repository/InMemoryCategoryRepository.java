@@ -3,29 +3,57 @@ package com.daniil.financemanager.infrastructure.repository;
 import com.daniil.financemanager.domain.model.Category;
 import com.daniil.financemanager.domain.repository.CategoryRepository;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public class InMemoryCategoryRepository implements CategoryRepository {
     private final Map<String, Category> categories;
+    private final Map<String, Integer> ids;
+    private final List<Category> categoriesById;
 
     public InMemoryCategoryRepository() {
         this.categories = new HashMap<>();
+        this.ids = new HashMap<>();
+        this.categoriesById = new ArrayList<>();
     }
 
     @Override
     public Optional<Category> findByName(String name) {
-        return Optional.ofNullable(categories.get(name.toLowerCase()));
+        return Optional.ofNullable(categories.get(Category.normalize(name)));
+    }
+
+    @Override
+    public Optional<Category> findById(int id) {
+        if (id < 0 || id >= categoriesById.size()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(categoriesById.get(id));
     }
 
     @Override
     public void save(Category category) {
-        categories.put(category.getName().toLowerCase(), category);
+        String key = category.getNormalizedName();
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = categoriesById.size();
+            ids.put(key, id);
+            categoriesById.add(null);
+        }
+        category.assignId(id);
+        categories.put(key, category);
+        categoriesById.set(id, category);
     }
 
     @Override
     public void delete(Category category) {
-        categories.remove(category.getName().toLowerCase());
+        String key = category.getNormalizedName();
+        categories.remove(key);
+        Integer id = ids.get(key);
+        if (id != null) {
+            categoriesById.set(id, null);
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.daniil.financemanager.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("financemanager.Budget")
+@Label("Budget Change")
+@Description("Budget set or updated for a category of a user's wallet")
+@Category({"Finance Manager", "Wallet"})
+public class BudgetEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Login")
+    public String login;
+
+    @Label("Category")
+    public String category;
+
+    @Label("Limit")
+    public double limit;
+
+    @Label("Period")
+    public String period;
+
+    @Label("Wallet Size")
+    public int walletSize;
+}
@@ -0,0 +1,25 @@
+package com.daniil.financemanager.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("financemanager.CategoryUpdate")
+@Label("Category Update")
+@Description("Rename of a category across a wallet's transactions and budgets")
+@Category({"Finance Manager", "Wallet"})
+public class CategoryUpdateEvent extends Event {
+    @Label("Login")
+    public String login;
+
+    @Label("Old Name")
+    public String oldName;
+
+    @Label("New Name")
+    public String newName;
+
+    @Label("Wallet Size")
+    public int walletSize;
+}
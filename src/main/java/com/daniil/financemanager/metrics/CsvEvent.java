@@ -0,0 +1,35 @@
+package com.daniil.financemanager.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("financemanager.Csv")
+@Label("CSV Transfer")
+@Description("CSV import into or export from a user's wallet")
+@Category({"Finance Manager", "Storage"})
+@StackTrace(false)
+public class CsvEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Login")
+    public String login;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Rejected Rows")
+    public long rejectedRows;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Wallet Size")
+    public int walletSize;
+}
@@ -0,0 +1,42 @@
+package com.daniil.financemanager.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+public final class FlightRecording {
+    public static final String SETTINGS_RESOURCE = "/financemanager.jfc";
+
+    private FlightRecording() {
+    }
+
+    public static Configuration settings() throws IOException {
+        InputStream resource = FlightRecording.class.getResourceAsStream(SETTINGS_RESOURCE);
+        if (resource == null) {
+            throw new IOException("Missing flight recording settings " + SETTINGS_RESOURCE);
+        }
+        try (Reader reader = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        } catch (ParseException e) {
+            throw new RuntimeException("Error reading flight recording settings: " + e.getMessage());
+        }
+    }
+
+    // The recording is written to the destination when it is stopped or, at the latest, when the JVM exits.
+    public static Recording start(Path destination) throws IOException {
+        Recording recording = new Recording(settings());
+        recording.setName("Finance Manager");
+        recording.setToDisk(true);
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,34 @@
+package com.daniil.financemanager.metrics;
+
+public enum Operation {
+    WALLET_ADD_INCOME("wallet.addIncome"),
+    WALLET_ADD_EXPENSE("wallet.addExpense"),
+    WALLET_TOTALS("wallet.totals"),
+    WALLET_PERIOD_QUERY("wallet.periodQuery"),
+    WALLET_RANGE_TOTALS("wallet.rangeTotals"),
+    WALLET_CATEGORY_SUMS("wallet.categorySums"),
+    BUDGET_SET("budget.set"),
+    BUDGET_UPDATE("budget.update"),
+    CATEGORY_GET_OR_CREATE("category.getOrCreate"),
+    CATEGORY_UPDATE("category.update"),
+    CATEGORY_DELETE("category.delete"),
+    STORAGE_SAVE("storage.save"),
+    STORAGE_LOAD("storage.load"),
+    STORAGE_LOAD_SUMMARY("storage.loadSummary"),
+    STORAGE_JOURNAL_APPEND("storage.journalAppend"),
+    STORAGE_SYNC("storage.sync"),
+    STORAGE_FLUSH("storage.flush"),
+    STORAGE_FLUSH_LAG("storage.flushLag"),
+    CSV_IMPORT("csv.import"),
+    CSV_EXPORT("csv.export");
+
+    private final String metricName;
+
+    Operation(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,97 @@
+package com.daniil.financemanager.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationMetrics {
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final LongAdder[] rows = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] bytesRead = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] bytesWritten = new LongAdder[OPERATIONS.length];
+
+    public OperationMetrics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            rows[i] = new LongAdder();
+            bytesRead[i] = new LongAdder();
+            bytesWritten[i] = new LongAdder();
+        }
+    }
+
+    public void record(Operation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public void record(Operation operation, long startNanos, long rowCount, long read, long written) {
+        int slot = operation.ordinal();
+        latencies[slot].record(System.nanoTime() - startNanos);
+        if (rowCount != 0) {
+            rows[slot].add(rowCount);
+        }
+        if (read != 0) {
+            bytesRead[slot].add(read);
+        }
+        if (written != 0) {
+            bytesWritten[slot].add(written);
+        }
+    }
+
+    public List<OperationStats> snapshot() {
+        List<OperationStats> stats = new ArrayList<>();
+        for (Operation operation : OPERATIONS) {
+            int slot = operation.ordinal();
+            LatencyHistogram.Snapshot latency = latencies[slot].snapshot();
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            stats.add(new OperationStats(operation.getMetricName(), latency.getCount(),
+                    latency.percentileNanos(50), latency.percentileNanos(99), latency.getMaxNanos(),
+                    latency.getMeanNanos(), rows[slot].sum(), bytesRead[slot].sum(), bytesWritten[slot].sum()));
+        }
+        return stats;
+    }
+
+    public List<String> format() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%-22s %10s %12s %12s %12s %12s %14s %14s",
+                "operation", "count", "p50 us", "p99 us", "max us", "rows", "bytes read", "bytes written"));
+        for (OperationStats stats : snapshot()) {
+            lines.add(String.format(Locale.ROOT, "%-22s %10d %12.1f %12.1f %12.1f %12d %14d %14d",
+                    stats.getOperation(), stats.getCount(), stats.getP50Nanos() / 1e3, stats.getP99Nanos() / 1e3,
+                    stats.getMaxNanos() / 1e3, stats.getRows(), stats.getBytesRead(), stats.getBytesWritten()));
+        }
+        return lines;
+    }
+
+    public void writeJson(Writer target) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(target)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeArrayFieldStart("operations");
+            for (OperationStats stats : snapshot()) {
+                json.writeStartObject();
+                json.writeStringField("operation", stats.getOperation());
+                json.writeNumberField("count", stats.getCount());
+                json.writeNumberField("p50Nanos", stats.getP50Nanos());
+                json.writeNumberField("p99Nanos", stats.getP99Nanos());
+                json.writeNumberField("maxNanos", stats.getMaxNanos());
+                json.writeNumberField("meanNanos", stats.getMeanNanos());
+                json.writeNumberField("rows", stats.getRows());
+                json.writeNumberField("bytesRead", stats.getBytesRead());
+                json.writeNumberField("bytesWritten", stats.getBytesWritten());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+}
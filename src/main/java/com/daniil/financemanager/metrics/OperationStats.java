@@ -0,0 +1,62 @@
+package com.daniil.financemanager.metrics;
+
+public class OperationStats {
+    private final String operation;
+    private final long count;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+    private final double meanNanos;
+    private final long rows;
+    private final long bytesRead;
+    private final long bytesWritten;
+
+    public OperationStats(String operation, long count, long p50Nanos, long p99Nanos, long maxNanos,
+                          double meanNanos, long rows, long bytesRead, long bytesWritten) {
+        this.operation = operation;
+        this.count = count;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+        this.meanNanos = meanNanos;
+        this.rows = rows;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,32 @@
+package com.daniil.financemanager.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("financemanager.Storage")
+@Label("Wallet Storage")
+@Description("Snapshot save or load of a user's wallet, including journal replay")
+@Category({"Finance Manager", "Storage"})
+@StackTrace(false)
+public class StorageEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Login")
+    public String login;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,28 @@
+package com.daniil.financemanager.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("financemanager.WalletWrite")
+@Label("Wallet Write")
+@Description("Income or expense recorded in a wallet, including the wait for the wallet lock")
+@Category({"Finance Manager", "Wallet"})
+public class WalletWriteEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Login")
+    public String login;
+
+    @Label("Category")
+    public String category;
+
+    @Label("Amount")
+    public double amount;
+
+    @Label("Wallet Size")
+    public int walletSize;
+}
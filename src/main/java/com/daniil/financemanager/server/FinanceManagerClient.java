@@ -0,0 +1,68 @@
+package com.daniil.financemanager.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FinanceManagerClient implements Closeable {
+    private final SocketChannel channel;
+    private final BufferedReader in;
+    private final BufferedWriter out;
+
+    public FinanceManagerClient(SocketAddress address) throws IOException {
+        this.channel = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open();
+        channel.connect(address);
+        this.in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+    }
+
+    public List<String> send(String command) throws IOException {
+        out.write(command);
+        out.write('\n');
+        out.flush();
+        return readResponse();
+    }
+
+    private List<String> readResponse() throws IOException {
+        String status = in.readLine();
+        if (status == null) {
+            throw new EOFException("Server closed the connection.");
+        }
+        if (status.startsWith("ERR ")) {
+            throw new IllegalStateException(status.substring("ERR ".length()));
+        }
+        if (!status.startsWith("OK ")) {
+            throw new IOException("Unexpected response: " + status);
+        }
+
+        int count = Integer.parseInt(status.substring("OK ".length()));
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(in.readLine());
+        }
+        return lines;
+    }
+
+    public static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
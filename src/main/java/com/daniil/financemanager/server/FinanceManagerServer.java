@@ -0,0 +1,132 @@
+package com.daniil.financemanager.server;
+
+import com.daniil.financemanager.cli.CommandInterpreter;
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+public class FinanceManagerServer implements Closeable {
+    public static final int DEFAULT_PORT = 7878;
+
+    private final UserService userService;
+    private final WalletService walletService;
+    private final BudgetService budgetService;
+    private final CategoryService categoryService;
+    private final FileStorageService fileStorageService;
+    private final SocketAddress address;
+    private final ConcurrentMap<String, Wallet> openWallets;
+    private final ExecutorService sessions;
+    private ServerSocketChannel channel;
+    private Thread acceptor;
+
+    public FinanceManagerServer(UserService userService, WalletService walletService,
+                                BudgetService budgetService, CategoryService categoryService,
+                                FileStorageService fileStorageService, SocketAddress address) {
+        this.userService = userService;
+        this.walletService = walletService;
+        this.budgetService = budgetService;
+        this.categoryService = categoryService;
+        this.fileStorageService = fileStorageService;
+        this.address = address;
+        this.openWallets = new ConcurrentHashMap<>();
+        this.sessions = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public static SocketAddress parseAddress(String spec) {
+        if (spec == null || spec.isEmpty()) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT);
+        }
+        if (spec.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(spec.substring("unix:".length()));
+        }
+        String port = spec.startsWith("tcp:") ? spec.substring("tcp:".length()) : spec;
+        try {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid server address: " + spec + " (expected tcp:<port> or unix:<path>)");
+        }
+    }
+
+    public synchronized SocketAddress start() throws IOException {
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+            channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            channel = ServerSocketChannel.open();
+        }
+        channel.bind(address);
+        acceptor = Thread.ofPlatform().name("finance-manager-acceptor").start(this::acceptLoop);
+        return channel.getLocalAddress();
+    }
+
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    private void acceptLoop() {
+        while (channel.isOpen()) {
+            try {
+                SocketChannel client = channel.accept();
+                sessions.submit(new ServerSession(newInterpreter(), client));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Error accepting connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private Wallet openWallet(User user) {
+        return openWallets.computeIfAbsent(user.getLogin(), login -> fileStorageService.loadUserData(user));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        channel.close();
+        sessions.shutdownNow();
+        try {
+            sessions.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Wallet wallet : openWallets.values()) {
+            Lock lock = wallet.getLock().writeLock();
+            lock.lock();
+            try {
+                fileStorageService.saveUserData(wallet.getUser());
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+        }
+    }
+
+    private CommandInterpreter newInterpreter() {
+        return new CommandInterpreter(userService, walletService, budgetService, categoryService,
+                fileStorageService, this::openWallet, true);
+    }
+}
@@ -0,0 +1,116 @@
+package com.daniil.financemanager.server;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LoadGenerator {
+    private final SocketAddress address;
+    private final int clients;
+    private final int requestsPerClient;
+
+    public LoadGenerator(SocketAddress address, int clients, int requestsPerClient) {
+        this.address = address;
+        this.clients = clients;
+        this.requestsPerClient = requestsPerClient;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String spec = null;
+        int clients = 16;
+        int requests = 1000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--requests" -> requests = Integer.parseInt(args[++i]);
+                default -> spec = args[i];
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(FinanceManagerServer.parseAddress(spec), clients, requests);
+        System.out.println(generator.run().format());
+    }
+
+    public Result run() throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<Future<long[]>> results = new ArrayList<>();
+        long started;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            started = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                String login = "load-" + runId + "-" + c;
+                results.add(executor.submit(() -> runClient(login)));
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        long[] latencies = new long[clients * requestsPerClient];
+        int offset = 0;
+        for (Future<long[]> result : results) {
+            long[] clientLatencies = result.get();
+            System.arraycopy(clientLatencies, 0, latencies, offset, clientLatencies.length);
+            offset += clientLatencies.length;
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed);
+    }
+
+    private long[] runClient(String login) throws Exception {
+        long[] latencies = new long[requestsPerClient];
+        try (FinanceManagerClient client = new FinanceManagerClient(address)) {
+            client.send("signup " + login + " secret");
+            client.send("login " + login + " secret");
+            for (int i = 0; i < requestsPerClient; i++) {
+                String command = switch (i % 4) {
+                    case 0 -> "add_income 100 Salary load test";
+                    case 1, 2 -> "add_expense 10 Food load test";
+                    default -> "show_balance";
+                };
+                long start = System.nanoTime();
+                client.send(command);
+                latencies[i] = System.nanoTime() - start;
+            }
+            client.send("quit");
+        }
+        return latencies;
+    }
+
+    public static class Result {
+        private final long[] sortedLatencies;
+        private final long elapsedNanos;
+
+        Result(long[] sortedLatencies, long elapsedNanos) {
+            this.sortedLatencies = sortedLatencies;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRequests() {
+            return sortedLatencies.length;
+        }
+
+        public double getRequestsPerSecond() {
+            return sortedLatencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public long percentileNanos(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0L;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        public String format() {
+            return String.format(Locale.ROOT,
+                    "%d requests in %.2f s: %.0f req/s, latency p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                    getRequests(), elapsedNanos / 1e9, getRequestsPerSecond(),
+                    percentileNanos(50) / 1e6, percentileNanos(90) / 1e6, percentileNanos(99) / 1e6,
+                    percentileNanos(99.9) / 1e6, percentileNanos(100) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.daniil.financemanager.server;
+
+import com.daniil.financemanager.cli.CommandInterpreter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class ServerSession implements Runnable {
+    private final SocketChannel client;
+    private final CommandInterpreter interpreter;
+
+    ServerSession(CommandInterpreter interpreter, SocketChannel client) {
+        this.interpreter = interpreter;
+        this.client = client;
+    }
+
+    @Override
+    public void run() {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     Channels.newInputStream(client), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                     Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+            String line;
+            while (!interpreter.isQuitRequested() && (line = in.readLine()) != null) {
+                out.write(handle(line));
+                if (interpreter.isQuitRequested() || !in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client went away or the server is shutting down; session state is discarded either way.
+        }
+    }
+
+    String handle(String line) {
+        try {
+            List<String> lines = interpreter.execute(line);
+            StringBuilder response = new StringBuilder("OK ").append(lines.size()).append('\n');
+            for (String each : lines) {
+                response.append(each.replace('\n', ' ')).append('\n');
+            }
+            return response.toString();
+        } catch (RuntimeException e) {
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            return "ERR " + message.replace('\n', ' ') + "\n";
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.daniil.financemanager.cli;
+
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import com.daniil.financemanager.domain.service.*;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryUserRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryWalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandInterpreterTest {
+    private static final String LOGIN = "interpreter-user";
+
+    private CommandInterpreter interpreter;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        deleteUserFiles();
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        CategoryService categoryService = new CategoryService(new InMemoryCategoryRepository());
+        FileStorageService fileStorageService = new FileStorageService();
+        userService = new UserService(new InMemoryUserRepository(), walletRepository);
+        interpreter = new CommandInterpreter(
+                userService,
+                new WalletService(walletRepository, false, new PrintStream(OutputStream.nullOutputStream())),
+                new BudgetService(walletRepository, categoryService),
+                categoryService,
+                fileStorageService,
+                User::getWallet,
+                false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        deleteUserFiles();
+    }
+
+    private static void deleteUserFiles() throws Exception {
+        for (String suffix : List.of(".json", ".wallet", ".journal")) {
+            Files.deleteIfExists(Path.of("data", LOGIN + suffix));
+        }
+    }
+
+    @Test
+    void testTokenizeHonoursQuotes() {
+        assertEquals(List.of("add_expense", "5", "Eating out", "say \"hi\""),
+                CommandInterpreter.tokenize("add_expense 5 \"Eating out\"   \"say \\\"hi\\\"\""));
+        assertEquals(List.of("a", ""), CommandInterpreter.tokenize("a \"\""));
+        assertThrows(IllegalArgumentException.class, () -> CommandInterpreter.tokenize("login \"bob"));
+    }
+
+    @Test
+    void testCommandsRequireLogin() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> interpreter.execute("add_expense 5 Food"));
+        assertEquals("You must be logged in to perform this action.", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> interpreter.execute("fly"));
+    }
+
+    @Test
+    void testReadOnlyCommandsRunAlongsideOtherReaders() throws Exception {
+        interpreter.execute("signup " + LOGIN + " pw");
+        interpreter.execute("login " + LOGIN + " pw");
+        interpreter.execute("add_income 100 Salary");
+        Wallet wallet = userService.findUserByLogin(LOGIN).getWallet();
+        Path export = Files.createTempFile("interpreter-export", ".csv");
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = Thread.ofPlatform().start(() -> {
+            wallet.getLock().readLock().lock();
+            try {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                wallet.getLock().readLock().unlock();
+            }
+        });
+        held.await();
+        try {
+            String today = LocalDate.now().toString();
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertEquals(List.of("income 100.00", "expense 0.00", "balance 100.00"), interpreter.execute("show_balance"));
+                assertEquals(List.of("income 100.00", "expense 0.00", "balance 100.00"),
+                        interpreter.execute("show_totals " + today + " " + today));
+                assertEquals(List.of("rows 1"), interpreter.execute("export_csv " + export));
+            });
+        } finally {
+            release.countDown();
+            reader.join();
+            Files.deleteIfExists(export);
+        }
+    }
+
+    @Test
+    void testDeferredChangesAreSavedOnce() {
+        interpreter.execute("signup " + LOGIN + " pw");
+        interpreter.execute("login " + LOGIN + " pw");
+        interpreter.execute("add_income 100 Salary \"March pay\"");
+        interpreter.execute("add_expense 12.5 Food lunch");
+        interpreter.execute("set_budget Food 50");
+
+        assertEquals(List.of("income 100.00", "expense 12.50", "balance 87.50"), interpreter.execute("show_balance"));
+        String today = LocalDate.now().toString();
+        assertEquals(List.of("income 100.00", "expense 12.50", "balance 87.50"),
+                interpreter.execute("show_totals " + today + " " + today));
+        assertEquals(List.of("expense 0.00"), interpreter.execute("show_totals 2000-01-01 2000-12-31 Food"));
+        assertEquals(List.of("income 0.00", "expense 12.50"), interpreter.execute("stats_categories Food, Rent"));
+        String month = YearMonth.now().toString();
+        assertEquals(List.of(month + "\tincome 100.00\texpense 12.50\trows 2"), interpreter.execute("stats_months"));
+        assertEquals(List.of(), interpreter.execute("stats_months 2000-01 2000-12"));
+        assertFalse(Files.exists(Path.of("data", LOGIN + ".journal")));
+        assertFalse(Files.exists(Path.of("data", LOGIN + ".json")));
+
+        assertEquals(1, interpreter.saveDeferredChanges());
+        assertTrue(Files.exists(Path.of("data", LOGIN + ".json")));
+        assertEquals(0, interpreter.saveDeferredChanges());
+
+        User reloaded = new User(LOGIN, "pw");
+        Wallet wallet = new FileStorageService().loadUserData(reloaded);
+        assertEquals(2, wallet.getTransactions().size());
+        assertEquals(Money.parse("87.50"), wallet.getTotalIncome().minus(wallet.getTotalExpense()));
+    }
+
+    @Test
+    void testQuitStopsTheSession() {
+        assertFalse(interpreter.isQuitRequested());
+        interpreter.execute("quit");
+        assertTrue(interpreter.isQuitRequested());
+    }
+}
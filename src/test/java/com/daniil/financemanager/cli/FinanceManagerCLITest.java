@@ -0,0 +1,176 @@
+package com.daniil.financemanager.cli;
+
+import com.daniil.financemanager.domain.service.*;
+import com.daniil.financemanager.infrastructure.repository.FileUserRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryUserRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryWalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinanceManagerCLITest {
+    private static final String LOGIN = "batch-user";
+
+    @TempDir
+    Path dir;
+
+    private Path index;
+    private ByteArrayOutputStream output;
+    private PrintStream out;
+    private FinanceManagerCLI cli;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        deleteUserFiles();
+        index = dir.resolve("users.idx");
+        output = new ByteArrayOutputStream();
+        out = new PrintStream(output, false, StandardCharsets.UTF_8);
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        CategoryService categoryService = new CategoryService(new InMemoryCategoryRepository());
+        cli = new FinanceManagerCLI(
+                new UserService(new InMemoryUserRepository(), walletRepository),
+                new WalletService(walletRepository, false, out),
+                new BudgetService(walletRepository, categoryService),
+                categoryService,
+                new FileStorageService());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        deleteUserFiles();
+    }
+
+    private static void deleteUserFiles() throws Exception {
+        for (String suffix : List.of(".json", ".wallet", ".journal")) {
+            Files.deleteIfExists(Path.of("data", LOGIN + suffix));
+        }
+    }
+
+    @Test
+    void testBatchRunsScriptWithoutPrompts() throws Exception {
+        String script = """
+                # nightly import
+                signup batch-user pw
+                login batch-user pw
+                add_income 1000 Salary "March pay"
+                add_expense 12.50 food "lunch"
+
+                add_expense abc food broken
+                show_balance
+                """;
+
+        int failed = cli.runBatch(new BufferedReader(new StringReader(script)), out);
+
+        String printed = output.toString(StandardCharsets.UTF_8);
+        assertEquals(1, failed);
+        assertFalse(printed.contains("Enter"));
+        assertTrue(printed.contains("Error (line 7): "));
+        assertTrue(printed.contains("income 1000.00\nexpense 12.50\nbalance 987.50\n"));
+        assertTrue(printed.contains("Batch finished: 6 commands (1 failed)"));
+        assertTrue(printed.contains("1 wallet(s) saved."));
+        assertTrue(Files.exists(Path.of("data", LOGIN + ".json")));
+        assertFalse(Files.exists(Path.of("data", LOGIN + ".journal")));
+    }
+
+    @Test
+    void testBatchReusesWalletAcrossRepeatedLogins() throws Exception {
+        String script = """
+                signup batch-user pw
+                login batch-user pw
+                add_income 10 Gift
+                logout
+                login batch-user pw
+                add_income 5 Gift
+                show_balance
+                quit
+                add_income 999 Ignored
+                """;
+
+        assertEquals(0, cli.runBatch(new BufferedReader(new StringReader(script)), out));
+
+        String printed = output.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("balance 15.00"));
+        assertTrue(printed.contains("Batch finished: 8 commands (0 failed)"));
+    }
+
+    @Test
+    void testRunCommandWorksOnPersistedWallet() throws Exception {
+        String script = """
+                signup batch-user pw
+                login batch-user pw
+                add_income 200 Salary
+                """;
+        newCli().runBatch(new BufferedReader(new StringReader(script)), out);
+        output.reset();
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(errors, true, StandardCharsets.UTF_8);
+        assertEquals(0, newCli().runCommand(LOGIN, "pw", List.of("add_expense", "20", "Food", "one shot"), out, err));
+        assertEquals(0, newCli().runCommand(LOGIN, "pw", List.of("show_balance"), out, err));
+
+        assertEquals("income 200.00\nexpense 20.00\nbalance 180.00\n",
+                output.toString(StandardCharsets.UTF_8));
+        assertEquals("", errors.toString(StandardCharsets.UTF_8));
+        assertTrue(Files.exists(index.resolveSibling(LOGIN + ".json")));
+    }
+
+    @Test
+    void testRunCommandReportsErrors() throws Exception {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(errors, true, StandardCharsets.UTF_8);
+        newCli().runBatch(new BufferedReader(new StringReader("signup batch-user pw\n")), new PrintStream(OutputStream.nullOutputStream()));
+
+        assertEquals(1, cli.runCommand(null, null, List.of("show_balance"), out, err));
+        assertEquals(1, newCli().runCommand(LOGIN, "pw", List.of("fly"), out, err));
+        assertEquals(0, newCli().runCommand(null, null, List.of("help"), out, err));
+
+        assertEquals("Error: You must be logged in to perform this action.\nError: Unknown command: fly\n",
+                errors.toString(StandardCharsets.UTF_8));
+        assertTrue(output.toString(StandardCharsets.UTF_8).startsWith("signup <login> <password>\n"));
+    }
+
+    @Test
+    void testRunCommandRejectsUnknownLoginsAndMissingPasswords() throws Exception {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(errors, true, StandardCharsets.UTF_8);
+        newCli().runBatch(new BufferedReader(new StringReader("signup batch-user pw\n")), new PrintStream(OutputStream.nullOutputStream()));
+
+        assertEquals(1, newCli().runCommand("stranger", "", List.of("show_balance"), out, err));
+        assertEquals(1, newCli().runCommand(LOGIN, "wrong", List.of("show_balance"), out, err));
+        assertEquals(1, newCli().runCommand(LOGIN, null, List.of("show_balance"), out, err));
+
+        assertEquals("""
+                Error: Invalid login or password.
+                Error: Invalid login or password.
+                Error: A password is required to act as batch-user (set FINANCE_MANAGER_PASSWORD).
+                """, errors.toString(StandardCharsets.UTF_8));
+        assertFalse(new FileUserRepository(index).findByLogin("stranger").isPresent());
+        assertEquals("", output.toString(StandardCharsets.UTF_8));
+    }
+
+    // A fresh CLI over the same user index, like a new process would open.
+    private FinanceManagerCLI newCli() {
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        CategoryService categoryService = new CategoryService(new InMemoryCategoryRepository());
+        return new FinanceManagerCLI(
+                new UserService(new FileUserRepository(index), walletRepository),
+                new WalletService(walletRepository, false, out),
+                new BudgetService(walletRepository, categoryService),
+                categoryService,
+                new FileStorageService());
+    }
+}
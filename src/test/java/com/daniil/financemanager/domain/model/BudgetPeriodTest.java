@@ -0,0 +1,120 @@
+package com.daniil.financemanager.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetPeriodTest {
+    @Test
+    void testParseAndFormatRoundTrip() {
+        assertSame(BudgetPeriod.MONTHLY, BudgetPeriod.parse(" Monthly "));
+        assertEquals(BudgetPeriod.DAILY, BudgetPeriod.parse("1d"));
+        assertEquals(BudgetPeriod.WEEKLY, BudgetPeriod.parse("7d@2025-06-02"));
+        assertEquals("weekly", BudgetPeriod.parse("7d@2025-06-02").toString());
+        assertEquals("14d@2025-06-02", BudgetPeriod.parse("14d@2025-06-02").toString());
+        assertEquals("10d", BudgetPeriod.parse("10d").toString());
+        assertThrows(IllegalArgumentException.class, () -> BudgetPeriod.parse("fortnightly"));
+        assertThrows(IllegalArgumentException.class, () -> BudgetPeriod.parse("0d"));
+        assertThrows(IllegalArgumentException.class, () -> BudgetPeriod.parse("5d@yesterday"));
+    }
+
+    @Test
+    void testWindowsAlignToCalendarAndAnchor() {
+        LocalDate wednesday = LocalDate.of(2025, 6, 4);
+        assertEquals(LocalDate.of(2025, 6, 2), BudgetPeriod.WEEKLY.windowStart(wednesday));
+        assertEquals(LocalDate.of(2025, 6, 8), BudgetPeriod.WEEKLY.windowEnd(wednesday));
+        assertEquals(LocalDate.of(2024, 2, 1), BudgetPeriod.MONTHLY.windowStart(LocalDate.of(2024, 2, 15)));
+        assertEquals(LocalDate.of(2024, 2, 29), BudgetPeriod.MONTHLY.windowEnd(LocalDate.of(2024, 2, 15)));
+        assertEquals(BudgetPeriod.MONTHLY.index(LocalDate.of(2024, 12, 31)) + 1,
+                BudgetPeriod.MONTHLY.index(LocalDate.of(2025, 1, 1)));
+
+        BudgetPeriod tenDays = BudgetPeriod.ofDays(10, LocalDate.of(2025, 1, 5));
+        assertEquals(LocalDate.of(2025, 1, 5), tenDays.windowStart(LocalDate.of(2025, 1, 14)));
+        assertEquals(LocalDate.of(2025, 1, 15), tenDays.windowStart(LocalDate.of(2025, 1, 15)));
+        assertEquals(LocalDate.of(2024, 12, 26), tenDays.windowStart(LocalDate.of(2025, 1, 4)));
+    }
+
+    @Test
+    void testWalletBudgetCountsOnlyCurrentWindow() {
+        Wallet wallet = new Wallet(new User("periods", "pw"));
+        Category food = new Category("Food");
+        LocalDate may = LocalDate.of(2025, 5, 20);
+        LocalDate june = LocalDate.of(2025, 6, 3);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(70), "", may);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(20), "", june);
+
+        Budget budget = new Budget(food, Money.of(100), BudgetPeriod.MONTHLY);
+        wallet.getBudgets().put(food, budget);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(5), "", june.plusDays(1));
+
+        assertEquals(Money.of(25), budget.getSpent(june));
+        assertEquals(Money.of(70), budget.getSpent(may));
+        assertEquals(Money.ZERO, budget.getSpent(june.plusMonths(1)));
+        assertEquals(Money.of(95), wallet.getSpending().get(food));
+
+        wallet.recalculateTotals();
+        assertEquals(Money.of(25), budget.getSpent(june));
+
+        Category groceries = new Category("Groceries");
+        wallet.renameCategory(food, groceries);
+        Budget renamed = wallet.getBudgets().get(groceries);
+        assertEquals(BudgetPeriod.MONTHLY, renamed.getPeriod());
+        assertEquals(Money.of(25), renamed.getSpent(june));
+    }
+
+    @Test
+    void testExpensesOlderThanTheRingAreDropped() {
+        Wallet wallet = new Wallet(new User("ring", "pw"));
+        Category food = new Category("Food");
+        Budget budget = new Budget(food, Money.of(10), BudgetPeriod.DAILY);
+        wallet.getBudgets().put(food, budget);
+        LocalDate today = LocalDate.of(2025, 6, 30);
+
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(3), "", today);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(4), "", today.minusDays(PeriodSpending.BUCKETS));
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(2), "", today.minusDays(PeriodSpending.BUCKETS - 1));
+
+        assertEquals(Money.of(3), budget.getSpent(today));
+        assertEquals(Money.of(2), budget.getSpent(today.minusDays(PeriodSpending.BUCKETS - 1)));
+        assertEquals(Money.ZERO, budget.getSpent(today.minusDays(PeriodSpending.BUCKETS)));
+        assertEquals(Money.of(9), wallet.getSpending().get(food));
+    }
+
+    @Test
+    void testDateEditMovesSpendingBetweenWindows() {
+        Wallet wallet = new Wallet(new User("moved", "pw"));
+        Category food = new Category("Food");
+        Budget budget = new Budget(food, Money.of(100), BudgetPeriod.MONTHLY);
+        wallet.getBudgets().put(food, budget);
+        LocalDate june = LocalDate.of(2025, 6, 3);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(40), "", june);
+        assertEquals(Money.of(40), budget.getSpent(june));
+
+        wallet.getTransactions().get(0).setDate(june.minusYears(1));
+
+        assertEquals(Money.ZERO, budget.getSpent(june));
+        assertEquals(Money.of(40), budget.getSpent(june.minusYears(1)));
+        assertEquals(Money.of(40), wallet.getSpending().get(food));
+    }
+
+    @Test
+    void testMergedCategoryWindowCountsBothCategories() {
+        Wallet wallet = new Wallet(new User("merged", "pw"));
+        Category snacks = new Category("Snacks");
+        Category food = new Category("Food");
+        LocalDate june = LocalDate.of(2025, 6, 3);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(20), "", june);
+        wallet.addTransaction(TransactionType.EXPENSE, snacks, Money.of(10), "", june);
+        Budget budget = new Budget(food, Money.of(100), BudgetPeriod.MONTHLY);
+        wallet.getBudgets().put(food, budget);
+
+        wallet.renameCategory(snacks, food);
+
+        assertEquals(Money.of(30), wallet.getBudgets().get(food).getSpent(june));
+        wallet.getBudgets().put(food, new Budget(food, Money.of(50), BudgetPeriod.MONTHLY));
+        assertEquals(Money.of(30), wallet.getBudgets().get(food).getSpent(june));
+        assertEquals(Money.of(30), wallet.getSpending().get(food));
+    }
+}
@@ -0,0 +1,43 @@
+package com.daniil.financemanager.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaySumTreeTest {
+    @Test
+    void testRangeSumsMatchPlainSumsWhileWindowGrowsBothWays() {
+        Random random = new Random(42);
+        DaySumTree tree = new DaySumTree();
+        int firstDay = 20_000;
+        long[] daily = new long[5_000];
+        for (int i = 0; i < 20_000; i++) {
+            int offset = random.nextInt(daily.length);
+            long amount = random.nextInt(100_000) - 10_000;
+            assertTrue(tree.add(firstDay + offset, amount));
+            daily[offset] += amount;
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            int from = random.nextInt(daily.length + 200) - 100;
+            int to = from + random.nextInt(daily.length);
+            long expected = 0L;
+            for (int day = Math.max(from, 0); day <= Math.min(to, daily.length - 1); day++) {
+                expected += daily[day];
+            }
+            assertEquals(expected, tree.sum(firstDay + from, firstDay + to));
+        }
+        assertEquals(0L, tree.sum(firstDay + 10, firstDay + 9));
+    }
+
+    @Test
+    void testRefusesSpansWiderThanTheLimit() {
+        DaySumTree tree = new DaySumTree();
+        assertTrue(tree.add(0, 1));
+        assertTrue(tree.add(DaySumTree.MAX_DAYS / 2, 2));
+        assertFalse(tree.add(-DaySumTree.MAX_DAYS / 2 - 100, 4));
+        assertEquals(3L, tree.sum(-DaySumTree.MAX_DAYS, DaySumTree.MAX_DAYS));
+    }
+}
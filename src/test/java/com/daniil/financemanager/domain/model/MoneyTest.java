@@ -0,0 +1,55 @@
+package com.daniil.financemanager.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    @Test
+    void testParseRoundsToScaleAndFormatsPlainDecimal() {
+        assertEquals("12.35", Money.parse("12.345").toString());
+        assertEquals("-0.05", Money.parse("-0.05").toString());
+        assertEquals("1000.00", Money.of(1000).toString());
+        assertEquals(Money.ofMinor(1250), Money.parse(" 12.5 "));
+        assertEquals("7", Money.ofMinor(7, 0).toString());
+        assertEquals("0.00000001", Money.ofMinor(1, 8).toString());
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("twelve"));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(1, 9));
+    }
+
+    @Test
+    void testArithmeticIsExactAndOverflowChecked() {
+        Money sum = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            sum = sum.plus(Money.parse("0.10"));
+        }
+        assertEquals(Money.of(1), sum);
+        assertEquals(Money.parse("0.90"), sum.minus(Money.parse("0.1")));
+        assertEquals(Money.ofMinor(1001, 3), Money.ofMinor(1, 3).plus(Money.of(1)));
+
+        Money huge = Money.ofMinor(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> huge.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> huge.times(2));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void testWalletTotalsStayExactOverManyRows() {
+        Wallet wallet = new Wallet(new User("money", "pw"));
+        Category food = new Category("Food");
+        for (int i = 0; i < 100_000; i++) {
+            wallet.addTransaction(TransactionType.EXPENSE, food, Money.parse("0.10"), "", LocalDate.now());
+        }
+        assertEquals(Money.of(10_000), wallet.getTotalExpense());
+        wallet.verifyTotals();
+
+        wallet.addTransaction(TransactionType.INCOME, food, Money.ofMinor(Long.MAX_VALUE), "", LocalDate.now());
+        assertThrows(ArithmeticException.class,
+                () -> wallet.addTransaction(TransactionType.INCOME, food, Money.ofMinor(1), "", LocalDate.now()));
+        assertEquals(100_001, wallet.getTransactions().size());
+        wallet.verifyTotals();
+    }
+}
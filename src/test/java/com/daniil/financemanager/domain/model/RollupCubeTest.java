@@ -0,0 +1,55 @@
+package com.daniil.financemanager.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupCubeTest {
+    @Test
+    void testWalletRollupsFollowWritesAndDateEdits() {
+        Wallet wallet = new Wallet(new User("rollups", "pw"));
+        Category food = new Category("Food");
+        Category rent = new Category("Rent");
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(30), "", LocalDate.of(2025, 1, 10));
+        wallet.addTransaction(TransactionType.EXPENSE, rent, Money.of(500), "", LocalDate.of(2025, 1, 1));
+        wallet.addTransaction(TransactionType.INCOME, new Category("Salary"), Money.of(900), "", LocalDate.of(2025, 2, 1));
+        Transaction lunch = new Transaction(TransactionType.EXPENSE, food, Money.of(12), "");
+        lunch.setDate(LocalDate.of(2025, 2, 3));
+        wallet.addTransaction(lunch);
+
+        RollupCube rollups = wallet.getRollups();
+        assertEquals(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 2)), rollups.months());
+        assertEquals(Money.of(530), rollups.sum(TransactionType.EXPENSE, YearMonth.of(2025, 1)));
+        assertEquals(2, rollups.count(TransactionType.EXPENSE, YearMonth.of(2025, 1)));
+        assertEquals(Money.of(42), wallet.sumByCategories(TransactionType.EXPENSE, List.of("Food")));
+        assertEquals(Money.of(12), wallet.sumByCategories(TransactionType.EXPENSE, List.of("Food", "Rent"),
+                YearMonth.of(2025, 2), null));
+
+        lunch.setDate(LocalDate.of(2025, 1, 20));
+        assertEquals(Money.of(42), wallet.sumByCategories(TransactionType.EXPENSE, List.of("Food"),
+                YearMonth.of(2025, 1), YearMonth.of(2025, 1)));
+        assertEquals(Money.ZERO, wallet.getRollups().sum(TransactionType.EXPENSE, YearMonth.of(2025, 2)));
+    }
+
+    @Test
+    void testCopyMergesCellsByCategoryName() {
+        RollupCube cube = new RollupCube();
+        YearMonth march = YearMonth.of(2024, 3);
+        cube.add(TransactionType.EXPENSE, new Category("Food"), LocalDate.of(2024, 3, 5), Money.parse("1.25"));
+        cube.add(new RollupCube.Cell(march, "Food", TransactionType.EXPENSE, Money.parse("2.50"), 2));
+        cube.add(new RollupCube.Cell(march, null, TransactionType.INCOME, Money.of(7), 1));
+
+        RollupCube copy = new RollupCube(cube);
+        assertEquals(Money.parse("3.75"), copy.sum(TransactionType.EXPENSE, List.of("Food")));
+        assertEquals(Money.of(7), copy.total(TransactionType.INCOME));
+        assertEquals(4, copy.count());
+
+        CategorySpending spending = new CategorySpending();
+        copy.addExpensesTo(spending);
+        assertEquals(Money.parse("3.75"), spending.get(new Category("Food")));
+    }
+}
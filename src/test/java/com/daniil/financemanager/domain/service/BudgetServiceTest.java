@@ -1,13 +1,17 @@
 package com.daniil.financemanager.domain.service;
 
 import com.daniil.financemanager.domain.model.Budget;
+import com.daniil.financemanager.domain.model.BudgetPeriod;
 import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.TransactionType;
 import com.daniil.financemanager.domain.model.User;
 import com.daniil.financemanager.domain.model.Wallet;
 import com.daniil.financemanager.domain.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -39,10 +43,10 @@ class BudgetServiceTest {
         when(walletRepository.findByUser(user)).thenReturn(Optional.of(wallet));
         when(categoryService.getOrCreateCategory("Food")).thenReturn(foodCategory);
 
-        budgetService.setBudget(user, "Food", 5000);
+        budgetService.setBudget(user, "Food", Money.of(5000));
 
         assertTrue(wallet.getBudgets().containsKey(foodCategory));
-        assertEquals(5000, wallet.getBudgets().get(foodCategory).getLimit());
+        assertEquals(Money.of(5000), wallet.getBudgets().get(foodCategory).getLimit());
     }
 
     @Test
@@ -51,7 +55,7 @@ class BudgetServiceTest {
         when(categoryService.getOrCreateCategory("Food")).thenReturn(foodCategory);
 
         assertThrows(IllegalArgumentException.class,
-                () -> budgetService.setBudget(user, "Food", -100));
+                () -> budgetService.setBudget(user, "Food", Money.of(-100)));
     }
 
     @Test
@@ -59,7 +63,7 @@ class BudgetServiceTest {
         when(walletRepository.findByUser(user)).thenReturn(Optional.empty());
 
         assertThrows(NoSuchElementException.class,
-                () -> budgetService.setBudget(user, "Food", 3000));
+                () -> budgetService.setBudget(user, "Food", Money.of(3000)));
     }
 
     @Test
@@ -67,11 +71,47 @@ class BudgetServiceTest {
         when(walletRepository.findByUser(user)).thenReturn(Optional.of(wallet));
         when(categoryService.getOrCreateCategory("Food")).thenReturn(foodCategory);
 
-        wallet.getBudgets().put(foodCategory, new Budget(foodCategory, 3000));
+        wallet.getBudgets().put(foodCategory, new Budget(foodCategory, Money.of(3000)));
 
-        budgetService.updateBudget(user, "Food", 7000);
+        budgetService.updateBudget(user, "Food", Money.of(7000));
 
-        assertEquals(7000, wallet.getBudgets().get(foodCategory).getLimit());
+        assertEquals(Money.of(7000), wallet.getBudgets().get(foodCategory).getLimit());
+    }
+
+    @Test
+    void testUpdateBudgetKeepsSpentFromExistingExpenses() {
+        when(walletRepository.findByUser(user)).thenReturn(Optional.of(wallet));
+        when(categoryService.getOrCreateCategory("Food")).thenReturn(foodCategory);
+        wallet.addTransaction(TransactionType.EXPENSE, foodCategory, Money.of(120), "Groceries", LocalDate.now());
+
+        budgetService.setBudget(user, "Food", Money.of(3000));
+        assertEquals(Money.of(120), wallet.getBudgets().get(foodCategory).getSpent());
+
+        budgetService.updateBudget(user, "Food", Money.of(500));
+        wallet.addTransaction(TransactionType.EXPENSE, foodCategory, Money.of(30), "Lunch", LocalDate.now());
+
+        assertEquals(Money.of(150), wallet.getBudgets().get(foodCategory).getSpent());
+        assertEquals(Money.of(350), wallet.getBudgets().get(foodCategory).getRemaining());
+    }
+
+    @Test
+    void testMonthlyBudgetIgnoresEarlierMonthsAndUpdateKeepsPeriod() {
+        when(walletRepository.findByUser(user)).thenReturn(Optional.of(wallet));
+        when(categoryService.getOrCreateCategory("Food")).thenReturn(foodCategory);
+        LocalDate today = LocalDate.now();
+        wallet.addTransaction(TransactionType.EXPENSE, foodCategory, Money.of(400), "Last month",
+                today.withDayOfMonth(1).minusDays(1));
+        wallet.addTransaction(TransactionType.EXPENSE, foodCategory, Money.of(60), "Groceries", today);
+
+        budgetService.setBudget(user, "Food", Money.of(300), BudgetPeriod.MONTHLY);
+        assertEquals(Money.of(60), wallet.getBudgets().get(foodCategory).getSpent());
+
+        budgetService.updateBudget(user, "Food", Money.of(200));
+        assertEquals(BudgetPeriod.MONTHLY, wallet.getBudgets().get(foodCategory).getPeriod());
+        assertEquals(Money.of(140), wallet.getBudgets().get(foodCategory).getRemaining());
+
+        budgetService.updateBudget(user, "Food", Money.of(1000), BudgetPeriod.LIFETIME);
+        assertEquals(Money.of(460), wallet.getBudgets().get(foodCategory).getSpent());
     }
 
     @Test
@@ -80,7 +120,7 @@ class BudgetServiceTest {
         when(categoryService.getOrCreateCategory("Food")).thenReturn(foodCategory);
 
         assertThrows(NoSuchElementException.class,
-                () -> budgetService.updateBudget(user, "Food", 7000));
+                () -> budgetService.updateBudget(user, "Food", Money.of(7000)));
     }
 
     @Test
@@ -88,9 +128,9 @@ class BudgetServiceTest {
         when(walletRepository.findByUser(user)).thenReturn(Optional.of(wallet));
         when(categoryService.getOrCreateCategory("Food")).thenReturn(foodCategory);
 
-        wallet.getBudgets().put(foodCategory, new Budget(foodCategory, 3000));
+        wallet.getBudgets().put(foodCategory, new Budget(foodCategory, Money.of(3000)));
 
         assertThrows(IllegalArgumentException.class,
-                () -> budgetService.updateBudget(user, "Food", -500));
+                () -> budgetService.updateBudget(user, "Food", Money.of(-500)));
     }
 }
@@ -5,6 +5,8 @@ import com.daniil.financemanager.domain.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -59,9 +61,9 @@ class CategoryServiceTest {
 
         when(categoryRepository.findByName("Food")).thenReturn(Optional.of(oldCategory));
 
-        Transaction t1 = new Transaction(TransactionType.EXPENSE, oldCategory, 100, "Lunch");
+        Transaction t1 = new Transaction(TransactionType.EXPENSE, oldCategory, Money.of(100), "Lunch");
         wallet.addTransaction(t1);
-        Budget budget = new Budget(oldCategory, 5000);
+        Budget budget = new Budget(oldCategory, Money.of(5000));
         wallet.getBudgets().put(oldCategory, budget);
 
         categoryService.updateCategory("Food", "Groceries", wallet);
@@ -75,6 +77,41 @@ class CategoryServiceTest {
         verify(categoryRepository).save(any(Category.class));
     }
 
+    @Test
+    void testUpdateCategoryPreservesDatesOrderAndBudgetSpent() {
+        Category food = new Category("Food");
+        Category salary = new Category("Salary");
+        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(food));
+
+        Transaction lunch = new Transaction(TransactionType.EXPENSE, food, Money.of(15), "Lunch");
+        lunch.setDate(LocalDate.of(2024, 1, 10));
+        Transaction pay = new Transaction(TransactionType.INCOME, salary, Money.of(3000), "Pay");
+        pay.setDate(LocalDate.of(2024, 1, 5));
+        Transaction dinner = new Transaction(TransactionType.EXPENSE, food, Money.of(40), "Dinner");
+        dinner.setDate(LocalDate.of(2024, 2, 1));
+        wallet.addTransaction(lunch);
+        wallet.addTransaction(pay);
+        wallet.addTransaction(dinner);
+        Budget budget = new Budget(food, Money.of(500));
+        wallet.getBudgets().put(food, budget);
+
+        categoryService.updateCategory("Food", "Groceries", wallet);
+
+        List<Transaction> transactions = wallet.getTransactions();
+        assertEquals(List.of("Lunch", "Pay", "Dinner"),
+                transactions.stream().map(Transaction::getDescription).toList());
+        assertEquals(List.of("Groceries", "Salary", "Groceries"),
+                transactions.stream().map(t -> t.getCategory().getName()).toList());
+        assertEquals(List.of(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 5), LocalDate.of(2024, 2, 1)),
+                transactions.stream().map(Transaction::getDate).toList());
+        assertEquals("Groceries", lunch.getCategory().getName());
+
+        Budget renamed = wallet.getBudgets().get(new Category("Groceries"));
+        assertEquals(Money.of(500), renamed.getLimit());
+        assertEquals(Money.of(55), renamed.getSpent());
+        assertFalse(wallet.getBudgets().containsKey(food));
+    }
+
     @Test
     void testUpdateCategoryWhenOldCategoryNotFoundThrowsException() {
         when(categoryRepository.findByName("Unknown")).thenReturn(Optional.empty());
@@ -92,6 +129,16 @@ class CategoryServiceTest {
                 () -> categoryService.updateCategory("Food", " ", wallet));
     }
 
+    @Test
+    void testGetCategoryById() {
+        Category food = new Category("Food");
+        when(categoryRepository.findById(3)).thenReturn(Optional.of(food));
+        when(categoryRepository.findById(4)).thenReturn(Optional.empty());
+
+        assertSame(food, categoryService.getCategoryById(3));
+        assertThrows(NoSuchElementException.class, () -> categoryService.getCategoryById(4));
+    }
+
     @Test
     void testDeleteCategorySuccess() {
         Category category = new Category("Leisure");
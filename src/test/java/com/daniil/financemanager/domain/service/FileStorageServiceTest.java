@@ -5,9 +5,17 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,15 +36,21 @@ class FileStorageServiceTest {
         Path jsonFile = storageDir.resolve(user.getLogin() + ".json");
         Path csvFile = storageDir.resolve(user.getLogin() + "_report.csv");
 
+        Path journalFile = storageDir.resolve(user.getLogin() + ".journal");
+        Path binaryFile = storageDir.resolve(user.getLogin() + ".wallet");
+
+        Files.deleteIfExists(binaryFile);
         Files.deleteIfExists(jsonFile);
         Files.deleteIfExists(csvFile);
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(storageDir.resolve("budget-import.csv"));
     }
 
     @Test
     void testSaveAndLoadUserData() {
         Wallet wallet = user.getWallet();
         Category food = new Category("Food");
-        Transaction t = new Transaction(TransactionType.EXPENSE, food, 100, "Lunch");
+        Transaction t = new Transaction(TransactionType.EXPENSE, food, Money.of(100), "Lunch");
         wallet.addTransaction(t);
 
         fileStorageService.saveUserData(user);
@@ -45,7 +59,9 @@ class FileStorageServiceTest {
 
         assertEquals(1, loadedWallet.getTransactions().size());
         assertEquals("Lunch", loadedWallet.getTransactions().getFirst().getDescription());
-        assertEquals(100, loadedWallet.getTransactions().getFirst().getAmount());
+        assertEquals(Money.of(100), loadedWallet.getTransactions().getFirst().getAmount());
+        assertEquals(Money.of(100), loadedWallet.getTotalExpense());
+        assertEquals(Money.of(0), loadedWallet.getTotalIncome());
     }
 
     @Test
@@ -60,7 +76,7 @@ class FileStorageServiceTest {
     void testExportAndImportCSV() {
         Wallet wallet = user.getWallet();
         Category salary = new Category("Salary");
-        Transaction t1 = new Transaction(TransactionType.INCOME, salary, 2000, "Monthly salary");
+        Transaction t1 = new Transaction(TransactionType.INCOME, salary, Money.of(2000), "Monthly salary");
         wallet.addTransaction(t1);
         t1.setDate(LocalDate.of(2025, 11, 6));
 
@@ -75,10 +91,59 @@ class FileStorageServiceTest {
         assertEquals(1, wallet.getTransactions().size());
         Transaction imported = wallet.getTransactions().getFirst();
         assertEquals("Monthly salary", imported.getDescription());
-        assertEquals(2000, imported.getAmount());
+        assertEquals(Money.of(2000), imported.getAmount());
         assertEquals(TransactionType.INCOME, imported.getType());
         assertEquals("Salary", imported.getCategory().getName());
         assertEquals(LocalDate.of(2025, 11, 6), imported.getDate());
+        assertEquals(Money.of(2000), wallet.getTotalIncome());
+    }
+
+    @Test
+    void testExportCSVFormatsRowsWithoutLocaleOrCommas() {
+        Wallet wallet = user.getWallet();
+        wallet.addTransaction(TransactionType.EXPENSE, new Category("Food"), Money.parse("0.05"), "Tea, biscuits", LocalDate.of(2025, 3, 9));
+        wallet.addTransaction(TransactionType.INCOME, new Category("Зарплата"), Money.parse("1234567.80"), "Аванс", LocalDate.of(1969, 12, 31));
+        wallet.addTransaction(TransactionType.EXPENSE, new Category("Refund"), Money.of(-12), "", LocalDate.of(10000, 1, 1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int rows = fileStorageService.exportWalletToCSV(user, out, false, null, null);
+
+        assertEquals(3, rows);
+        assertEquals("""
+                Type,Category,Amount,Description,Date
+                EXPENSE,Food,0.05,Tea; biscuits,2025-03-09
+                INCOME,Зарплата,1234567.80,Аванс,1969-12-31
+                EXPENSE,Refund,-12.00,,+10000-01-01
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportCSVDateRangeAsGzipRoundTrips() throws Exception {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        for (int day = 1; day <= 30; day++) {
+            wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(day), "Day " + day, LocalDate.of(2025, 4, 31 - day));
+        }
+
+        Path gzFile = storageDir.resolve(user.getLogin() + "_report.csv.gz");
+        try {
+            int rows = fileStorageService.exportWalletToCSV(user, gzFile,
+                    LocalDate.of(2025, 4, 10), LocalDate.of(2025, 4, 12));
+            assertEquals(3, rows);
+
+            String csv;
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(gzFile))) {
+                csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertEquals("""
+                    Type,Category,Amount,Description,Date
+                    EXPENSE,Food,21.00,Day 21,2025-04-10
+                    EXPENSE,Food,20.00,Day 20,2025-04-11
+                    EXPENSE,Food,19.00,Day 19,2025-04-12
+                    """, csv);
+        } finally {
+            Files.deleteIfExists(gzFile);
+        }
     }
 
     @Test
@@ -92,4 +157,385 @@ class FileStorageServiceTest {
 
         assertTrue(wallet.getTransactions().isEmpty());
     }
+
+    @Test
+    void testImportCSVWaitsForReadersOfTheWallet() throws Exception {
+        Path csvFilePath = storageDir.resolve(user.getLogin() + "_report.csv");
+        Files.createDirectories(storageDir);
+        Files.writeString(csvFilePath, "Type,Category,Amount,Description,Date\nINCOME,Salary,10,Pay,2025-01-31\n");
+
+        Thread importer;
+        user.getWallet().getLock().readLock().lock();
+        try {
+            importer = Thread.ofPlatform().start(() -> fileStorageService.importWalletFromCSV(user, csvFilePath.toString()));
+            importer.join(200);
+            assertTrue(importer.isAlive());
+            assertTrue(user.getWallet().getTransactions().isEmpty());
+        } finally {
+            user.getWallet().getLock().readLock().unlock();
+        }
+        importer.join(5000);
+        assertEquals(1, user.getWallet().getTransactions().size());
+        assertEquals(Money.of(10), user.getWallet().getTotalIncome());
+    }
+
+    @Test
+    void testImportCSVReportsRejectedLineNumbers() throws Exception {
+        Wallet wallet = user.getWallet();
+        Path csvFilePath = storageDir.resolve(user.getLogin() + "_report.csv");
+        Files.createDirectories(storageDir);
+        Files.writeString(csvFilePath, """
+                Type,Category,Amount,Description,Date
+                INCOME,Salary,1000.005,Pay; bonus,2025-01-31
+                EXPENSE,Food,abc,Lunch,2025-02-01
+
+                EXPENSE,Food,12.5,Lunch,2025-02-30\r
+                EXPENSE, Food ,-7.1,Refund,2025-03-01\r
+                """);
+
+        CsvImportReport report = fileStorageService.importWalletFromCSV(user, csvFilePath.toString());
+
+        assertEquals(2, report.getAcceptedRows());
+        assertEquals(List.of(3L, 5L), report.getRejectedLines());
+        assertEquals("Pay, bonus", wallet.getTransactions().get(0).getDescription());
+        assertEquals(Money.parse("1000.01"), wallet.getTransactions().get(0).getAmount());
+        assertEquals("Food", wallet.getTransactions().get(1).getCategory().getName());
+        assertEquals(LocalDate.of(2025, 3, 1), wallet.getTransactions().get(1).getDate());
+        assertEquals(Money.parse("-7.10"), wallet.getTotalExpense());
+    }
+
+    @Test
+    void testParallelImportKeepsFileOrderAcrossChunks() throws Exception {
+        Path csvFilePath = storageDir.resolve(user.getLogin() + "_report.csv");
+        Files.createDirectories(storageDir);
+        StringBuilder csv = new StringBuilder("Type,Category,Amount,Description,Date\n");
+        for (int i = 0; i < 5000; i++) {
+            csv.append(i % 10 == 9 ? "BROKEN" : "EXPENSE,Cat" + (i % 7) + "," + i + ".25,Row " + i + ",2025-01-01")
+                    .append('\n');
+        }
+        Files.writeString(csvFilePath, csv);
+
+        Wallet wallet = user.getWallet();
+        CsvImportReport report = new CsvWalletImporter(new ForkJoinPool(4), 1024)
+                .importInto(wallet, csvFilePath);
+
+        assertEquals(4500, report.getAcceptedRows());
+        assertEquals(500, report.getRejectedRows());
+        assertEquals(11L, report.getRejectedLines().getFirst());
+        assertEquals(5001L, report.getRejectedLines().getLast());
+        int row = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (i % 10 != 9) {
+                assertEquals("Row " + i, wallet.getTransactions().get(row++).getDescription());
+            }
+        }
+    }
+
+    @Test
+    void testJournaledChangesAreReplayedOnLoad() {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        Transaction t = new Transaction(TransactionType.EXPENSE, food, Money.parse("42.50"), "Pizza");
+        t.setDate(LocalDate.of(2025, 5, 1));
+        wallet.addTransaction(t);
+        fileStorageService.appendTransaction(user, t);
+        Budget budget = new Budget(food, Money.of(300));
+        wallet.getBudgets().put(food, budget);
+        fileStorageService.appendBudget(user, budget);
+        wallet.renameCategory(food, new Category("Eating out"));
+        fileStorageService.appendCategoryRename(user, "Food", "Eating out");
+
+        User restarted = new User(user.getLogin(), "qwerty");
+        Wallet loaded = fileStorageService.loadUserData(restarted);
+
+        assertEquals(1, loaded.getTransactions().size());
+        Transaction replayed = loaded.getTransactions().getFirst();
+        assertEquals("Eating out", replayed.getCategory().getName());
+        assertEquals(Money.parse("42.50"), replayed.getAmount());
+        assertEquals(LocalDate.of(2025, 5, 1), replayed.getDate());
+        assertEquals(Money.of(300), loaded.getBudgets().get(new Category("Eating out")).getLimit());
+        assertEquals(Money.parse("42.50"), loaded.getBudgets().get(new Category("Eating out")).getSpent());
+        assertEquals(Money.parse("42.50"), loaded.getTotalExpense());
+    }
+
+    @Test
+    void testSnapshotSupersedesJournalRecords() throws Exception {
+        Wallet wallet = user.getWallet();
+        Transaction t = new Transaction(TransactionType.INCOME, new Category("Salary"), Money.of(1000), "Pay");
+        wallet.addTransaction(t);
+        fileStorageService.appendTransaction(user, t);
+
+        Path journalFile = storageDir.resolve(user.getLogin() + ".journal");
+        byte[] journalBeforeSnapshot = Files.readAllBytes(journalFile);
+        fileStorageService.saveUserData(user);
+        assertFalse(Files.exists(journalFile));
+
+        Files.write(journalFile, journalBeforeSnapshot);
+        Wallet loaded = fileStorageService.loadUserData(new User(user.getLogin(), "qwerty"));
+
+        assertEquals(1, loaded.getTransactions().size());
+        assertEquals(Money.of(1000), loaded.getTotalIncome());
+    }
+
+    @Test
+    void testTornJournalTailIsDiscarded() throws Exception {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        Transaction first = new Transaction(TransactionType.EXPENSE, food, Money.of(10), "First");
+        wallet.addTransaction(first);
+        fileStorageService.appendTransaction(user, first);
+        Transaction second = new Transaction(TransactionType.EXPENSE, food, Money.of(20), "Second");
+        wallet.addTransaction(second);
+        fileStorageService.appendTransaction(user, second);
+
+        Path journalFile = storageDir.resolve(user.getLogin() + ".journal");
+        byte[] bytes = Files.readAllBytes(journalFile);
+        Files.write(journalFile, Arrays.copyOf(bytes, bytes.length - 3));
+
+        Wallet loaded = fileStorageService.loadUserData(new User(user.getLogin(), "qwerty"));
+
+        assertEquals(1, loaded.getTransactions().size());
+        assertEquals("First", loaded.getTransactions().getFirst().getDescription());
+    }
+
+    @Test
+    void testJournalKeepsLongDescriptionsAndUncategorizedTransactions() {
+        Wallet wallet = user.getWallet();
+        String description = "ж".repeat(40_000);
+        Transaction longNote = new Transaction(TransactionType.EXPENSE, new Category("Food"), Money.of(10), description);
+        wallet.addTransaction(longNote);
+        fileStorageService.appendTransaction(user, longNote);
+        Transaction uncategorized = new Transaction(TransactionType.INCOME, null, Money.of(5), "Gift");
+        wallet.addTransaction(uncategorized);
+        fileStorageService.appendTransaction(user, uncategorized);
+
+        Wallet loaded = fileStorageService.loadUserData(new User(user.getLogin(), "qwerty"));
+
+        assertEquals(2, loaded.getTransactions().size());
+        assertEquals(description, loaded.getTransactions().getFirst().getDescription());
+        assertNull(loaded.getTransactions().get(1).getCategory());
+        assertEquals(Money.of(5), loaded.getTotalIncome());
+    }
+
+    @Test
+    void testJournalIsCompactedIntoSnapshotPastThreshold() {
+        FileStorageService compactingService = new FileStorageService(1);
+        Wallet wallet = user.getWallet();
+        Transaction t = new Transaction(TransactionType.EXPENSE, new Category("Food"), Money.of(10), "Lunch");
+        wallet.addTransaction(t);
+
+        compactingService.appendTransaction(user, t);
+
+        assertFalse(Files.exists(storageDir.resolve(user.getLogin() + ".journal")));
+        assertTrue(Files.exists(storageDir.resolve(user.getLogin() + ".json")));
+        assertEquals(1, compactingService.loadUserData(new User(user.getLogin(), "qwerty")).getTransactions().size());
+    }
+
+    @Test
+    void testSaveAndLoadBinarySnapshot() {
+        FileStorageService binaryService = new FileStorageService(SnapshotFormat.BINARY);
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        Transaction lunch = new Transaction(TransactionType.EXPENSE, food, Money.parse("12.34"), "Lunch, with tea");
+        lunch.setDate(LocalDate.of(1969, 12, 25));
+        Transaction pay = new Transaction(TransactionType.INCOME, new Category("Salary"), Money.of(2500), "Зарплата");
+        pay.setDate(LocalDate.of(2025, 1, 31));
+        wallet.addTransaction(lunch);
+        wallet.addTransaction(pay);
+        Budget budget = new Budget(food, Money.of(400));
+        wallet.getBudgets().put(food, budget);
+
+        binaryService.saveUserData(user);
+        Wallet loaded = binaryService.loadUserData(new User(user.getLogin(), "qwerty"));
+
+        assertEquals(2, loaded.getTransactions().size());
+        Transaction first = loaded.getTransactions().get(0);
+        assertEquals("Lunch, with tea", first.getDescription());
+        assertEquals(Money.parse("12.34"), first.getAmount());
+        assertEquals(LocalDate.of(1969, 12, 25), first.getDate());
+        assertEquals("Food", first.getCategory().getName());
+        Transaction second = loaded.getTransactions().get(1);
+        assertEquals("Зарплата", second.getDescription());
+        assertEquals(TransactionType.INCOME, second.getType());
+        assertEquals(Money.of(2500), loaded.getTotalIncome());
+        assertEquals(Money.of(400), loaded.getBudgets().get(food).getLimit());
+        assertEquals(Money.parse("12.34"), loaded.getBudgets().get(food).getSpent());
+    }
+
+    @Test
+    void testJsonSnapshotIsMigratedToBinary() {
+        Wallet wallet = user.getWallet();
+        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, new Category("Food"), Money.of(100), "Lunch"));
+        fileStorageService.saveUserData(user);
+
+        FileStorageService binaryService = new FileStorageService(SnapshotFormat.BINARY);
+        User restarted = new User(user.getLogin(), "qwerty");
+        assertEquals(1, binaryService.loadUserData(restarted).getTransactions().size());
+
+        binaryService.saveUserData(restarted);
+
+        assertFalse(Files.exists(storageDir.resolve(user.getLogin() + ".json")));
+        assertTrue(Files.exists(storageDir.resolve(user.getLogin() + ".wallet")));
+        Wallet loaded = fileStorageService.loadUserData(new User(user.getLogin(), "qwerty"));
+        assertEquals("Lunch", loaded.getTransactions().getFirst().getDescription());
+    }
+
+    @Test
+    void testStreamingLoaderReadsBudgetsAndTimestampDates() throws Exception {
+        Files.createDirectories(storageDir);
+        Files.writeString(storageDir.resolve(user.getLogin() + ".json"), """
+                {
+                  "budgets" : { "Food" : { "category" : { "name" : "Food" }, "limit" : 250.0, "spent" : 40.0 } },
+                  "journalSequence" : 7,
+                  "unknown" : { "nested" : [ 1, 2, 3 ] },
+                  "transactions" : [
+                    { "type" : "EXPENSE", "category" : { "name" : "Food" }, "amount" : 40.0,
+                      "description" : "Groceries", "date" : [ 2024, 2, 29 ] },
+                    { "type" : "INCOME", "category" : { "name" : "Salary" }, "amount" : 900.5,
+                      "description" : "Pay", "date" : "2024-03-01" }
+                  ]
+                }
+                """);
+
+        Wallet loaded = fileStorageService.loadUserData(user);
+
+        assertEquals(2, loaded.getTransactions().size());
+        assertEquals(LocalDate.of(2024, 2, 29), loaded.getTransactions().get(0).getDate());
+        assertEquals("Pay", loaded.getTransactions().get(1).getDescription());
+        assertEquals(Money.parse("900.50"), loaded.getTotalIncome());
+        assertEquals(Money.of(40), loaded.getBudgets().get(new Category("Food")).getSpent());
+        assertEquals(7, loaded.getJournalSequence());
+    }
+
+    @Test
+    void testLoadWalletSummaryCombinesSnapshotAndJournal() {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        wallet.addTransaction(new Transaction(TransactionType.INCOME, new Category("Salary"), Money.of(1000), "Pay"));
+        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, food, Money.of(150), "Groceries"));
+        wallet.getBudgets().put(food, new Budget(food, Money.of(500)));
+        fileStorageService.saveUserData(user);
+
+        Transaction journaled = new Transaction(TransactionType.EXPENSE, food, Money.of(50), "Lunch");
+        wallet.addTransaction(journaled);
+        fileStorageService.appendTransaction(user, journaled);
+
+        WalletSummary summary = fileStorageService.loadWalletSummary(new User(user.getLogin(), "qwerty"));
+
+        assertEquals(Money.of(1000), summary.getTotalIncome());
+        assertEquals(Money.of(200), summary.getTotalExpense());
+        assertEquals(Money.of(800), summary.getBalance());
+        assertEquals(3, summary.getTransactionCount());
+        assertEquals(Money.of(500), summary.getBudgets().get(food).getLimit());
+        assertEquals(Money.of(200), summary.getBudgets().get(food).getSpent());
+
+        FileStorageService binaryService = new FileStorageService(SnapshotFormat.BINARY);
+        binaryService.saveUserData(user);
+        WalletSummary binarySummary = binaryService.loadWalletSummary(new User(user.getLogin(), "qwerty"));
+        assertEquals(Money.of(200), binarySummary.getTotalExpense());
+        assertEquals(3, binarySummary.getTransactionCount());
+        assertEquals(Money.of(200), binarySummary.getBudgets().get(food).getSpent());
+    }
+
+    @Test
+    void testImportedExpensesCountTowardsBudgets() throws Exception {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        wallet.getBudgets().put(food, new Budget(food, Money.of(100)));
+        Path csv = storageDir.resolve("budget-import.csv");
+        Files.createDirectories(storageDir);
+        Files.writeString(csv, """
+                Type,Category,Amount,Description,Date
+                EXPENSE,Food,30.25,Lunch,2025-01-02
+                EXPENSE,food,9.75,Coffee,2025-01-03
+                INCOME,Food,500,Refund,2025-01-04
+                """);
+
+        fileStorageService.importWalletFromCSV(user, csv.toString());
+
+        assertEquals(Money.of(40), wallet.getBudgets().get(food).getSpent());
+        assertEquals(Money.of(60), wallet.getBudgets().get(food).getRemaining());
+    }
+
+    @Test
+    void testPeriodBudgetsSurviveSnapshotsJournalAndSummary() {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        LocalDate today = LocalDate.now();
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(80), "Old", today.minusDays(40));
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(15), "Lunch", today);
+        wallet.getBudgets().put(food, new Budget(food, Money.of(100), BudgetPeriod.WEEKLY));
+
+        for (FileStorageService service : List.of(fileStorageService, new FileStorageService(SnapshotFormat.BINARY))) {
+            service.saveUserData(user);
+            Wallet loaded = service.loadUserData(new User(user.getLogin(), "qwerty"));
+            assertEquals(BudgetPeriod.WEEKLY, loaded.getBudgets().get(food).getPeriod());
+            assertEquals(Money.of(15), loaded.getBudgets().get(food).getSpent());
+
+            WalletSummary summary = service.loadWalletSummary(new User(user.getLogin(), "qwerty"));
+            assertEquals(Money.of(15), summary.getBudgets().get(food).getSpent());
+            assertEquals(Money.of(95), summary.getTotalExpense());
+        }
+
+        Budget daily = new Budget(food, Money.of(20), BudgetPeriod.DAILY);
+        wallet.getBudgets().put(food, daily);
+        fileStorageService.appendBudget(user, daily);
+        Transaction coffee = new Transaction(TransactionType.EXPENSE, food, Money.of(3), "Coffee");
+        wallet.addTransaction(coffee);
+        fileStorageService.appendTransaction(user, coffee);
+
+        WalletSummary summary = fileStorageService.loadWalletSummary(new User(user.getLogin(), "qwerty"));
+        assertEquals(BudgetPeriod.DAILY, summary.getBudgets().get(food).getPeriod());
+        assertEquals(Money.of(18), summary.getBudgets().get(food).getSpent());
+        assertEquals(3, summary.getTransactionCount());
+        Wallet loaded = fileStorageService.loadUserData(new User(user.getLogin(), "qwerty"));
+        assertEquals(Money.of(18), loaded.getBudgets().get(food).getSpent());
+    }
+
+    @Test
+    void testSummaryWindowCountsRowsOfMergedCategories() {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        Category snacks = new Category("Snacks");
+        LocalDate today = LocalDate.now();
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(20), "Lunch", today);
+        wallet.addTransaction(TransactionType.EXPENSE, snacks, Money.of(10), "Chips", today);
+        wallet.getBudgets().put(food, new Budget(food, Money.of(100), BudgetPeriod.MONTHLY));
+        wallet.renameCategory(snacks, food);
+
+        for (FileStorageService service : List.of(fileStorageService, new FileStorageService(SnapshotFormat.BINARY))) {
+            service.saveUserData(user);
+            WalletSummary summary = service.loadWalletSummary(new User(user.getLogin(), "qwerty"));
+            assertEquals(Money.of(30), summary.getBudgets().get(food).getSpent());
+            assertEquals(Money.of(30), summary.getTotalExpense());
+        }
+    }
+
+    @Test
+    void testSummaryReadsPersistedRollups() {
+        Wallet wallet = user.getWallet();
+        Category food = new Category("Food");
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(40), "Lunch", LocalDate.of(2025, 1, 5));
+        wallet.addTransaction(TransactionType.INCOME, new Category("Salary"), Money.of(900), "Pay", LocalDate.of(2025, 2, 1));
+        wallet.getBudgets().put(food, new Budget(food, Money.of(100)));
+
+        for (FileStorageService service : List.of(fileStorageService, new FileStorageService(SnapshotFormat.BINARY))) {
+            service.saveUserData(user);
+            Transaction journaled = new Transaction(TransactionType.EXPENSE, food, Money.of(10), "Coffee");
+            journaled.setDate(LocalDate.of(2025, 2, 2));
+            wallet.addTransaction(journaled);
+            service.appendTransaction(user, journaled);
+
+            WalletSummary summary = service.loadWalletSummary(new User(user.getLogin(), "qwerty"));
+            RollupCube rollups = summary.getRollups();
+            assertEquals(Money.of(40), rollups.sum(TransactionType.EXPENSE, YearMonth.of(2025, 1)));
+            assertEquals(Money.of(900), rollups.sum(TransactionType.INCOME, YearMonth.of(2025, 2)));
+            assertEquals(wallet.getTotalExpense(), rollups.sum(TransactionType.EXPENSE, List.of("Food")));
+            assertEquals(wallet.getTotalExpense(), summary.getBudgets().get(food).getSpent());
+            assertEquals(wallet.getTransactions().size(), summary.getTransactionCount());
+
+            Wallet loaded = service.loadUserData(new User(user.getLogin(), "qwerty"));
+            assertEquals(wallet.getRollups().cells(), loaded.getRollups().cells());
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.domain.model.*;
+import com.daniil.financemanager.metrics.OperationMetrics;
+import com.daniil.financemanager.metrics.OperationStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceSchedulerTest {
+    private final FileStorageService fileStorageService = new FileStorageService();
+    private final OperationMetrics metrics = new OperationMetrics();
+    private User user;
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = new User("write-behind-user", "pw");
+        snapshot = Path.of("data", user.getLogin() + ".json");
+        Files.deleteIfExists(snapshot);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(Path.of("data", user.getLogin() + ".journal"));
+    }
+
+    @Test
+    void testChangesAreCoalescedIntoOneSave() {
+        PersistenceScheduler scheduler = new PersistenceScheduler(fileStorageService, Duration.ofHours(1), 1000, metrics);
+        for (int i = 0; i < 5; i++) {
+            user.getWallet().addTransaction(new Transaction(TransactionType.EXPENSE, new Category("Food"), Money.of(i + 1), ""));
+            scheduler.markDirty(user);
+        }
+
+        assertFalse(Files.exists(snapshot));
+        assertEquals(1, scheduler.getDirtyWallets());
+        assertEquals(5, scheduler.getPendingChanges());
+
+        assertEquals(1, scheduler.flush());
+        assertEquals(0, scheduler.getPendingChanges());
+        assertEquals(5, fileStorageService.loadUserData(new User(user.getLogin(), "pw")).getTransactions().size());
+        OperationStats flushes = stats("storage.flush");
+        assertEquals(1, flushes.getCount());
+        assertEquals(5, flushes.getRows());
+        assertEquals(1, stats("storage.flushLag").getCount());
+        scheduler.close();
+    }
+
+    @Test
+    void testThresholdAndIntervalWakeTheFlusher() throws Exception {
+        PersistenceScheduler byThreshold = new PersistenceScheduler(fileStorageService, Duration.ofHours(1), 3, metrics);
+        byThreshold.markDirty(user);
+        byThreshold.markDirty(user, 2);
+        awaitSnapshot();
+        byThreshold.close();
+
+        Files.delete(snapshot);
+        PersistenceScheduler byInterval = new PersistenceScheduler(fileStorageService, Duration.ofMillis(20), 1000, metrics);
+        byInterval.markDirty(user);
+        awaitSnapshot();
+        byInterval.close();
+    }
+
+    @Test
+    void testCloseFlushesAndLaterChangesAreSavedInline() throws Exception {
+        PersistenceScheduler scheduler = new PersistenceScheduler(fileStorageService, Duration.ofHours(1), 1000, metrics);
+        scheduler.markDirty(user);
+        scheduler.close();
+        assertTrue(Files.exists(snapshot));
+
+        Files.delete(snapshot);
+        scheduler.markDirty(user);
+        assertTrue(Files.exists(snapshot));
+        assertEquals(0, scheduler.getDirtyWallets());
+    }
+
+    @Test
+    void testFlushOnlyReadsTheWalletAndKeepsLaterJournalRecords() throws Exception {
+        PersistenceScheduler scheduler = new PersistenceScheduler(fileStorageService, Duration.ofHours(1), 1000, metrics);
+        user.getWallet().addTransaction(new Transaction(TransactionType.EXPENSE, new Category("Food"), Money.of(1), ""));
+        scheduler.markDirty(user);
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = Thread.ofPlatform().start(() -> {
+            user.getWallet().getLock().readLock().lock();
+            try {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                user.getWallet().getLock().readLock().unlock();
+            }
+        });
+        held.await();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertEquals(1, scheduler.flush()));
+        } finally {
+            release.countDown();
+            reader.join();
+        }
+
+        FileStorageService.EncodedSnapshot encoded = fileStorageService.encodeSnapshot(user);
+        Transaction later = new Transaction(TransactionType.EXPENSE, new Category("Food"), Money.of(2), "");
+        user.getWallet().addTransaction(later);
+        fileStorageService.appendTransaction(user, later);
+        fileStorageService.saveEncodedSnapshot(user, encoded);
+
+        assertEquals(2, fileStorageService.loadUserData(new User(user.getLogin(), "pw")).getTransactions().size());
+        scheduler.close();
+    }
+
+    private void awaitSnapshot() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!Files.exists(snapshot) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(Files.exists(snapshot));
+    }
+
+    private OperationStats stats(String operation) {
+        List<OperationStats> snapshot = metrics.snapshot();
+        return snapshot.stream().filter(s -> s.getOperation().equals(operation)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.daniil.financemanager.domain.service;
+
+import com.daniil.financemanager.metrics.OperationMetrics;
+import com.daniil.financemanager.metrics.OperationStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCommitterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testFailedWriteKeepsThePreviousSnapshot() throws Exception {
+        for (Durability durability : Durability.values()) {
+            SnapshotCommitter committer = new SnapshotCommitter(durability, new OperationMetrics());
+            Path target = dir.resolve(durability + ".json");
+            committer.write(target, out -> out.write("old".getBytes(StandardCharsets.UTF_8)));
+
+            assertThrows(IOException.class, () -> committer.write(target, out -> {
+                out.write("half of the new".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                throw new IOException("disk full");
+            }));
+
+            assertEquals("old", Files.readString(target));
+            assertEquals(List.of(), tempFiles());
+            committer.write(target, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+            assertEquals("new", Files.readString(target));
+        }
+    }
+
+    @Test
+    void testFailedRenameRemovesTheTempFile() throws Exception {
+        Path occupied = dir.resolve("occupied.json");
+        Files.createDirectories(occupied);
+        Files.writeString(occupied.resolve("keep"), "x");
+        for (Durability durability : Durability.values()) {
+            SnapshotCommitter committer = new SnapshotCommitter(durability, new OperationMetrics());
+            assertThrows(IOException.class,
+                    () -> committer.write(occupied, out -> out.write("new".getBytes(StandardCharsets.UTF_8))));
+            assertEquals(List.of(), tempFiles());
+        }
+    }
+
+    @Test
+    void testStaleTempFilesAreRemovedOnFirstWrite() throws Exception {
+        Path crashed = dir.resolve("alice.json123.tmp");
+        Path inFlight = dir.resolve("bob.json456.tmp");
+        Files.writeString(crashed, "half");
+        Files.writeString(inFlight, "half");
+        Files.setLastModifiedTime(crashed, FileTime.from(Instant.now().minus(SnapshotCommitter.STALE_TEMP_AGE.multipliedBy(2))));
+
+        new SnapshotCommitter(Durability.GROUP, new OperationMetrics())
+                .write(dir.resolve("carol.json"), out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of(inFlight), tempFiles());
+    }
+
+    @Test
+    void testConcurrentSavesShareCommitPasses() throws Exception {
+        OperationMetrics metrics = new OperationMetrics();
+        SnapshotCommitter committer = new SnapshotCommitter(Durability.GROUP, metrics);
+        int savers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> saves = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(savers)) {
+            for (int i = 0; i < savers; i++) {
+                Path target = dir.resolve("user-" + i + ".json");
+                String content = "wallet " + i;
+                saves.add(pool.submit(() -> {
+                    start.await();
+                    committer.write(target, out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        }
+
+        for (int i = 0; i < savers; i++) {
+            assertEquals("wallet " + i, Files.readString(dir.resolve("user-" + i + ".json")));
+        }
+        assertEquals(List.of(), tempFiles());
+        OperationStats syncs = metrics.snapshot().stream()
+                .filter(s -> s.getOperation().equals("storage.sync")).findFirst().orElseThrow();
+        assertEquals(savers, syncs.getRows());
+        assertTrue(syncs.getCount() <= savers);
+    }
+
+    @Test
+    void testConcurrentSavesOfOneTargetDoNotShareATempFile() throws Exception {
+        SnapshotCommitter committer = new SnapshotCommitter(Durability.GROUP, new OperationMetrics());
+        Path target = dir.resolve("shared.json");
+        String content = "x".repeat(64 * 1024);
+        List<Future<?>> saves = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                saves.add(pool.submit(() -> {
+                    committer.write(target, out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+                    return null;
+                }));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        }
+
+        assertEquals(content, Files.readString(target));
+        assertEquals(List.of(), tempFiles());
+    }
+
+    private List<Path> tempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".tmp")).toList();
+        }
+    }
+}
@@ -6,9 +6,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class WalletServiceTest {
@@ -30,37 +41,37 @@ class WalletServiceTest {
 
     @Test
     void testAddExpenseAndBudgetWarning() {
-        Budget foodBudget = new Budget(food, 100);
+        Budget foodBudget = new Budget(food, Money.of(100));
         wallet.getBudgets().put(food, foodBudget);
 
-        walletService.addExpense(wallet, 90, food, "Dinner");
+        walletService.addExpense(wallet, Money.of(90), food, "Dinner");
 
         assertEquals(1, wallet.getTransactions().size());
-        assertEquals(90, wallet.getTransactions().getFirst().getAmount());
-        assertEquals(90, foodBudget.getSpent());
+        assertEquals(Money.of(90), wallet.getTransactions().getFirst().getAmount());
+        assertEquals(Money.of(90), foodBudget.getSpent());
 
-        walletService.addExpense(wallet, 20, food, "Snack");
-        assertEquals(110, foodBudget.getSpent());
+        walletService.addExpense(wallet, Money.of(20), food, "Snack");
+        assertEquals(Money.of(110), foodBudget.getSpent());
 
         verify(walletRepository, times(2)).save(wallet);
     }
 
     @Test
     void testAddIncomeAndTotalCalculation() {
-        walletService.addIncome(wallet, 2000, salary, "Salary payment");
+        walletService.addIncome(wallet, Money.of(2000), salary, "Salary payment");
 
         assertEquals(1, wallet.getTransactions().size());
-        assertEquals(2000, walletService.getTotalIncome(wallet));
-        assertEquals(0, walletService.getTotalExpense(wallet));
+        assertEquals(Money.of(2000), walletService.getTotalIncome(wallet));
+        assertEquals(Money.of(0), walletService.getTotalExpense(wallet));
 
         verify(walletRepository).save(wallet);
     }
 
     @Test
     void testGetTransactionsByPeriod() {
-        Transaction t1 = new Transaction(TransactionType.INCOME, salary, 1000, "Salary");
+        Transaction t1 = new Transaction(TransactionType.INCOME, salary, Money.of(1000), "Salary");
         t1.setDate(LocalDate.of(2025, 11, 1));
-        Transaction t2 = new Transaction(TransactionType.EXPENSE, food, 50, "Lunch");
+        Transaction t2 = new Transaction(TransactionType.EXPENSE, food, Money.of(50), "Lunch");
         t2.setDate(LocalDate.of(2025, 11, 5));
 
         wallet.addTransaction(t1);
@@ -74,23 +85,255 @@ class WalletServiceTest {
         assertEquals(t2, periodTransactions.getFirst());
     }
 
+    @Test
+    void testGetTransactionsInRangeReturnsDateOrderedSlice() {
+        Transaction late = new Transaction(TransactionType.EXPENSE, food, Money.of(30), "Late");
+        late.setDate(LocalDate.of(2025, 11, 20));
+        Transaction early = new Transaction(TransactionType.EXPENSE, food, Money.of(10), "Early");
+        early.setDate(LocalDate.of(2025, 11, 3));
+        Transaction middle = new Transaction(TransactionType.INCOME, salary, Money.of(20), "Middle");
+        middle.setDate(LocalDate.of(2025, 11, 10));
+
+        wallet.addTransaction(late);
+        wallet.addTransaction(early);
+        wallet.addTransaction(middle);
+
+        List<Transaction> range = walletService.getTransactionsInRange(wallet,
+                LocalDate.of(2025, 11, 3),
+                LocalDate.of(2025, 11, 10));
+
+        assertEquals(List.of(early, middle), range);
+    }
+
+    @Test
+    void testGetTransactionsInRangeSeesDateChangesAfterInsert() {
+        Transaction t = new Transaction(TransactionType.EXPENSE, food, Money.of(10), "Lunch");
+        wallet.addTransaction(t);
+        t.setDate(LocalDate.of(2024, 1, 15));
+
+        assertEquals(List.of(t), walletService.getTransactionsInRange(wallet,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        assertTrue(walletService.getTransactionsInRange(wallet,
+                LocalDate.now(), LocalDate.now()).isEmpty());
+    }
+
+    @Test
+    void testRangeViewReadsWaitForWriters() throws Exception {
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(5), "Lunch", day);
+        List<Transaction> range = walletService.getTransactionsInRange(wallet, day, day);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        wallet.getLock().writeLock().lock();
+        Future<Transaction> read;
+        try {
+            read = executor.submit(() -> range.get(0));
+            Thread.sleep(100);
+            assertFalse(read.isDone());
+            wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(7), "Dinner", day.minusDays(1));
+        } finally {
+            wallet.getLock().writeLock().unlock();
+        }
+        assertEquals(Money.of(5), read.get(5, TimeUnit.SECONDS).getAmount());
+        assertEquals(1, range.size());
+        executor.shutdown();
+    }
+
+    @Test
+    void testGetTransactionsInRangeWithInvertedBoundsThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> walletService.getTransactionsInRange(wallet,
+                LocalDate.of(2025, 11, 6), LocalDate.of(2025, 11, 2)));
+    }
+
+    @Test
+    void testTransactionsViewMaterializesStoredRows() {
+        walletService.addExpense(wallet, Money.parse("12.345"), food, "Coffee");
+
+        Transaction stored = wallet.getTransactions().getFirst();
+        assertEquals(TransactionType.EXPENSE, stored.getType());
+        assertEquals(food, stored.getCategory());
+        assertEquals(Money.parse("12.35"), stored.getAmount());
+        assertEquals("Coffee", stored.getDescription());
+        assertEquals(LocalDate.now(), stored.getDate());
+
+        stored.setDate(LocalDate.of(2024, 3, 1));
+        assertEquals(LocalDate.of(2024, 3, 1), wallet.getTransactions().getFirst().getDate());
+        assertEquals(stored, wallet.getTransactions().getFirst());
+    }
+
     @Test
     void testGetIncomeByCategories() {
-        wallet.addTransaction(new Transaction(TransactionType.INCOME, salary, 1000, "Salary"));
-        wallet.addTransaction(new Transaction(TransactionType.INCOME, new Category("Bonus"), 500, "Bonus"));
-        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, food, 100, "Dinner"));
+        wallet.addTransaction(new Transaction(TransactionType.INCOME, salary, Money.of(1000), "Salary"));
+        wallet.addTransaction(new Transaction(TransactionType.INCOME, new Category("Bonus"), Money.of(500), "Bonus"));
+        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, food, Money.of(100), "Dinner"));
 
-        double income = walletService.getIncomeByCategories(wallet, List.of("Salary", "Bonus"));
-        assertEquals(1500, income);
+        Money income = walletService.getIncomeByCategories(wallet, List.of("Salary", "Bonus"));
+        assertEquals(Money.of(1500), income);
     }
 
     @Test
     void testGetExpenseByCategories() {
-        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, food, 100, "Lunch"));
-        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, new Category("Transport"), 50, "Taxi"));
-        wallet.addTransaction(new Transaction(TransactionType.INCOME, salary, 1000, "Salary"));
+        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, food, Money.of(100), "Lunch"));
+        wallet.addTransaction(new Transaction(TransactionType.EXPENSE, new Category("Transport"), Money.of(50), "Taxi"));
+        wallet.addTransaction(new Transaction(TransactionType.INCOME, salary, Money.of(1000), "Salary"));
+
+        Money expense = walletService.getExpenseByCategories(wallet, List.of("Food"));
+        assertEquals(Money.of(100), expense);
+    }
+
+    @Test
+    void testTotalsAreMaintainedIncrementally() {
+        walletService.addIncome(wallet, Money.of(1000), salary, "Salary");
+        walletService.addExpense(wallet, Money.of(250), food, "Groceries");
+        walletService.addExpense(wallet, Money.of(50), food, "Lunch");
+
+        assertEquals(Money.of(1000), walletService.getTotalIncome(wallet));
+        assertEquals(Money.of(300), walletService.getTotalExpense(wallet));
+        wallet.verifyTotals();
+    }
+
+    @Test
+    void testRowsAppendedThroughTheListKeepTotalsInSync() {
+        WalletService checkingService = new WalletService(walletRepository, true);
+        checkingService.addIncome(wallet, Money.of(1000), salary, "Salary");
+
+        wallet.getTransactions().add(new Transaction(TransactionType.EXPENSE, food, Money.of(100), "Listed"));
+
+        assertEquals(Money.of(100), checkingService.getTotalExpense(wallet));
+        assertEquals(Money.of(100), wallet.getSpending().get(food));
+
+        wallet.getTransactions().clear();
+        assertEquals(Money.ZERO, checkingService.getTotalIncome(wallet));
+        assertEquals(Money.ZERO, wallet.getSpending().get(food));
+    }
+
+    @Test
+    void testConcurrentUpdatesKeepBalanceExact() throws Exception {
+        int threads = 8;
+        int iterations = 2000;
+        Budget foodBudget = new Budget(food, Money.of(1_000_000_000));
+        wallet.getBudgets().put(food, foodBudget);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writersDone = new AtomicBoolean();
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < iterations; i++) {
+                    walletService.addIncome(wallet, Money.of(2), salary, "Pay");
+                    walletService.addExpense(wallet, Money.of(1), food, "Lunch");
+                }
+                return null;
+            }));
+        }
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            Money lastIncome = Money.ZERO;
+            int lastRows = 0;
+            while (!writersDone.get()) {
+                Money income = walletService.getTotalIncome(wallet);
+                assertTrue(income.compareTo(lastIncome) >= 0, "income went backwards");
+                assertEquals(0, income.minorUnits() % Money.of(2).minorUnits());
+                lastIncome = income;
+
+                int rows = walletService.getTransactionsByPeriod(wallet, LocalDate.now(), LocalDate.now()).size();
+                assertTrue(rows >= lastRows, "range query went backwards");
+                lastRows = rows;
+            }
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writersDone.set(true);
+        reader.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        int operations = threads * iterations;
+        assertEquals(Money.of(2L * operations), walletService.getTotalIncome(wallet));
+        assertEquals(Money.of(operations), walletService.getTotalExpense(wallet));
+        assertEquals(2 * operations, wallet.getTransactions().size());
+        assertEquals(Money.of(operations), foodBudget.getSpent());
+        assertEquals(2 * operations,
+                walletService.getTransactionsByPeriod(wallet, LocalDate.now(), LocalDate.now()).size());
+        wallet.verifyTotals();
+    }
+
+    @Test
+    void testQueriesShareTheReadLockWhileRebuildingLazily() throws Exception {
+        LocalDate jan = LocalDate.of(2025, 1, 10);
+        for (int i = 0; i < 100; i++) {
+            wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(1), "", jan.plusDays(i % 20));
+        }
+        wallet.getTransactions().get(0).setDate(jan.minusYears(1));
+
+        int readers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> queries = new ArrayList<>();
+        // Holding a read lock here would deadlock any query that still took the write lock.
+        wallet.getLock().readLock().lock();
+        try {
+            for (int t = 0; t < readers; t++) {
+                queries.add(executor.submit(() -> {
+                    start.await();
+                    assertEquals(Money.of(99), walletService.getExpenseBetween(wallet, jan, jan.plusDays(30)));
+                    assertEquals(Money.of(99), walletService.getExpenseBetween(wallet, food, jan, jan.plusDays(30)));
+                    assertEquals(99, walletService.getTransactionsByPeriod(wallet, jan, jan.plusDays(30)).size());
+                    assertEquals(Money.of(100), walletService.getExpenseByCategories(wallet, List.of("Food")));
+                    assertEquals(Money.of(1), walletService.getRollups(wallet)
+                            .sum(TransactionType.EXPENSE, YearMonth.from(jan.minusYears(1))));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> query : queries) {
+                query.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            wallet.getLock().readLock().unlock();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRangeTotalsFollowAppendsDateEditsAndRenames() {
+        LocalDate jan = LocalDate.of(2025, 1, 10);
+        wallet.addTransaction(TransactionType.INCOME, salary, Money.of(1000), "Pay", jan);
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(40), "Groceries", jan.plusDays(5));
+        Transaction moved = new Transaction(TransactionType.EXPENSE, food, Money.of(25), "Dinner");
+        moved.setDate(jan.plusDays(40));
+        wallet.addTransaction(moved);
+
+        LocalDate end = jan.withDayOfMonth(31);
+        assertEquals(Money.of(1000), walletService.getIncomeBetween(wallet, jan, end));
+        assertEquals(Money.of(40), walletService.getExpenseBetween(wallet, jan, end));
+        assertEquals(Money.of(40), walletService.getExpenseBetween(wallet, food, jan, end));
+        assertEquals(Money.ZERO, walletService.getExpenseBetween(wallet, salary, jan, end));
+
+        moved.setDate(jan.plusDays(1));
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(5), "Snack", LocalDate.of(1999, 12, 31));
+        assertEquals(Money.of(65), walletService.getExpenseBetween(wallet, food, jan, end));
+        assertEquals(Money.of(70), walletService.getExpenseBetween(wallet, LocalDate.MIN.withYear(-9999), end));
+
+        Category groceries = new Category("Groceries");
+        wallet.addTransaction(TransactionType.EXPENSE, groceries, Money.of(7), "Bread", jan);
+        wallet.renameCategory(food, groceries);
+        assertEquals(Money.of(72), walletService.getExpenseBetween(wallet, groceries, jan, end));
+        assertThrows(IllegalArgumentException.class, () -> walletService.getIncomeBetween(wallet, end, jan));
+    }
+
+    @Test
+    void testRangeTotalsFallBackToScanForExtremeDateSpans() {
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(3), "", LocalDate.of(-2000, 1, 1));
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(4), "", LocalDate.of(2025, 1, 1));
+        wallet.addTransaction(TransactionType.EXPENSE, food, Money.of(5), "", LocalDate.of(4000, 1, 1));
 
-        double expense = walletService.getExpenseByCategories(wallet, List.of("Food"));
-        assertEquals(100, expense);
+        assertEquals(Money.of(12), walletService.getExpenseBetween(wallet, LocalDate.of(-3000, 1, 1), LocalDate.of(5000, 1, 1)));
+        assertEquals(Money.of(4), walletService.getExpenseBetween(wallet, food, LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1)));
     }
 }
@@ -0,0 +1,59 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentCategoryRepositoryTest {
+    private ConcurrentCategoryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ConcurrentCategoryRepository();
+    }
+
+    @Test
+    void testSaveFindAndDelete() {
+        Category food = new Category("Food");
+        repository.save(food);
+
+        assertEquals(food, repository.findByName("FOOD").orElseThrow());
+        assertEquals(food, repository.findById(food.getId()).orElseThrow());
+
+        repository.delete(food);
+        assertTrue(repository.findByName("Food").isEmpty());
+        assertTrue(repository.findById(food.getId()).isEmpty());
+    }
+
+    @Test
+    void testConcurrentSavesAssignOneIdPerName() {
+        IntStream.range(0, 10_000).parallel()
+                .forEach(i -> repository.save(new Category((i % 2 == 0 ? "Cat" : "CAT") + (i % 100))));
+
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Category category = repository.findByName("cat" + i).orElseThrow();
+            assertEquals(category, repository.findById(category.getId()).orElseThrow());
+            assertTrue(ids.add(category.getId()));
+        }
+        assertEquals(100, ids.size());
+    }
+
+    @Test
+    void testIdSurvivesDeleteAndRecreate() {
+        Category food = new Category("Food");
+        repository.save(food);
+        int id = food.getId();
+        repository.delete(food);
+
+        Category recreated = new Category("food");
+        repository.save(recreated);
+        assertEquals(id, recreated.getId());
+    }
+}
@@ -0,0 +1,45 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentUserRepositoryTest {
+    private ConcurrentUserRepository repository;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ConcurrentUserRepository();
+        user = new User("capybara120404", "qwerty");
+    }
+
+    @Test
+    void testSaveAndFind() {
+        repository.save(user);
+        Optional<User> found = repository.findByLogin("capybara120404");
+        assertTrue(found.isPresent());
+        assertEquals(user, found.get());
+    }
+
+    @Test
+    void testFindNonExistent() {
+        assertTrue(repository.findByLogin("unknown").isEmpty());
+    }
+
+    @Test
+    void testConcurrentSavesAreAllVisible() {
+        IntStream.range(0, 2000).parallel()
+                .forEach(i -> repository.save(new User("user" + i, "pass")));
+
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("user" + i, repository.findByLogin("user" + i).orElseThrow().getLogin());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.model.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentWalletRepositoryTest {
+    private ConcurrentWalletRepository repository;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ConcurrentWalletRepository();
+        user = new User("capybara120404", "qwerty");
+    }
+
+    @Test
+    void testSaveAndFind() {
+        repository.save(user.getWallet());
+        Optional<Wallet> found = repository.findByUser(user);
+        assertTrue(found.isPresent());
+        assertEquals(user.getWallet(), found.get());
+    }
+
+    @Test
+    void testFindNonExistent() {
+        assertTrue(repository.findByUser(new User("unknown", "pass")).isEmpty());
+    }
+
+    @Test
+    void testConcurrentSavesKeepOneWalletPerUser() {
+        List<User> users = IntStream.range(0, 500).mapToObj(i -> new User("user" + i, "pass")).toList();
+
+        IntStream.range(0, 5000).parallel()
+                .forEach(i -> repository.save(users.get(i % users.size()).getWallet()));
+
+        for (User each : users) {
+            assertSame(each.getWallet(), repository.findByUser(each).orElseThrow());
+        }
+    }
+}
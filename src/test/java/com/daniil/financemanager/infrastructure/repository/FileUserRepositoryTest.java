@@ -0,0 +1,100 @@
+package com.daniil.financemanager.infrastructure.repository;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.Transaction;
+import com.daniil.financemanager.domain.model.TransactionType;
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.service.BudgetService;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.domain.service.FileStorageService;
+import com.daniil.financemanager.domain.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileUserRepositoryTest {
+    @TempDir
+    Path dir;
+
+    private Path index;
+
+    @BeforeEach
+    void setUp() {
+        index = dir.resolve("users.idx");
+    }
+
+    @Test
+    void testSignUpsSurviveARestart() {
+        new UserService(new FileUserRepository(index), new InMemoryWalletRepository()).signUp("capybara120404", "qwerty");
+
+        FileUserRepository restarted = new FileUserRepository(index);
+        UserService userService = new UserService(restarted, new InMemoryWalletRepository());
+        assertTrue(userService.signIn("capybara120404", "qwerty"));
+        assertFalse(userService.signIn("capybara120404", "wrong"));
+        assertThrows(IllegalArgumentException.class, () -> userService.signUp("capybara120404", "other"));
+
+        User user = restarted.findByLogin("capybara120404").orElseThrow();
+        assertSame(user, restarted.findByLogin("capybara120404").orElseThrow());
+        FileUserRepository.IndexEntry entry = restarted.findEntry("capybara120404").orElseThrow();
+        assertEquals(user.getSalt(), entry.salt());
+        assertEquals(dir.resolve("capybara120404").toString(), entry.walletLocation());
+        assertTrue(entry.lastModified() > 0);
+        assertEquals(dir.resolve("capybara120404"), user.getWalletLocation());
+    }
+
+    @Test
+    void testRestoredWalletIsStoredAtTheIndexedLocation() {
+        new UserService(new FileUserRepository(index), new InMemoryWalletRepository()).signUp("capybara120404", "qwerty");
+        FileStorageService storage = new FileStorageService();
+
+        User user = new FileUserRepository(index).findByLogin("capybara120404").orElseThrow();
+        user.getWallet().addTransaction(new Transaction(TransactionType.INCOME, new Category("Salary"), Money.of(10), ""));
+        storage.saveUserData(user);
+        assertTrue(Files.exists(dir.resolve("capybara120404.json")));
+
+        User restored = new FileUserRepository(index).findByLogin("capybara120404").orElseThrow();
+        assertEquals(Money.of(10), storage.loadUserData(restored).getTotalIncome());
+    }
+
+    @Test
+    void testRestoredUserCanSetABudget() {
+        new UserService(new FileUserRepository(index), new InMemoryWalletRepository()).signUp("capybara120404", "qwerty");
+
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        UserService userService = new UserService(new FileUserRepository(index), walletRepository);
+        BudgetService budgetService = new BudgetService(walletRepository, new CategoryService(new InMemoryCategoryRepository()));
+        assertTrue(userService.signIn("capybara120404", "qwerty"));
+        User user = userService.findUserByLogin("capybara120404");
+
+        budgetService.setBudget(user, "Food", Money.of(50));
+        assertSame(user.getWallet(), walletRepository.findByUser(user).orElseThrow());
+        assertEquals(Money.of(50), user.getWallet().getBudgets().get(new Category("Food")).getLimit());
+    }
+
+    @Test
+    void testLatestRecordWinsAndTornTailIsDropped() throws Exception {
+        FileUserRepository repository = new FileUserRepository(index);
+        repository.save(new User("alice", "old"));
+        User renewed = new User("alice", "new");
+        repository.save(renewed);
+        repository.save(new User("bob", "pw"));
+        long intact = Files.size(index);
+        Files.write(index, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        FileUserRepository reopened = new FileUserRepository(index);
+        assertEquals(2, reopened.size());
+        assertEquals(renewed.getPassword(), reopened.findByLogin("alice").orElseThrow().getPassword());
+        assertEquals(intact, Files.size(index));
+
+        reopened.save(new User("carol", "pw"));
+        assertTrue(new FileUserRepository(index).findByLogin("carol").isPresent());
+        assertTrue(new FileUserRepository(dir.resolve("missing.idx")).findByLogin("alice").isEmpty());
+    }
+}
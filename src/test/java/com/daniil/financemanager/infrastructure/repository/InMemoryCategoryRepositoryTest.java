@@ -6,8 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryCategoryRepositoryTest {
     private InMemoryCategoryRepository repository;
@@ -46,4 +45,28 @@ class InMemoryCategoryRepositoryTest {
         assertTrue(repository.findByName("food").isPresent());
         assertTrue(repository.findByName("FOOD").isPresent());
     }
+
+    @Test
+    void testSaveAssignsStableIds() {
+        Category transport = new Category("Transport");
+        repository.save(food);
+        repository.save(transport);
+
+        assertNotEquals(food.getId(), transport.getId());
+        assertEquals(food, repository.findById(food.getId()).orElseThrow());
+
+        int foodId = food.getId();
+        repository.delete(food);
+        assertTrue(repository.findById(foodId).isEmpty());
+
+        Category recreated = new Category("FOOD");
+        repository.save(recreated);
+        assertEquals(foodId, recreated.getId());
+    }
+
+    @Test
+    void testFindByUnknownId() {
+        assertTrue(repository.findById(-1).isEmpty());
+        assertTrue(repository.findById(42).isEmpty());
+    }
 }
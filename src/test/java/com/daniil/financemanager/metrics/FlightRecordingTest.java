@@ -0,0 +1,103 @@
+package com.daniil.financemanager.metrics;
+
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.service.BudgetService;
+import com.daniil.financemanager.domain.service.CategoryService;
+import com.daniil.financemanager.domain.service.FileStorageService;
+import com.daniil.financemanager.domain.service.WalletService;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryWalletRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingTest {
+    private static final String LOGIN = "jfr-user";
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (String suffix : List.of(".json", ".wallet", ".journal")) {
+            Files.deleteIfExists(Path.of("data", LOGIN + suffix));
+        }
+    }
+
+    @Test
+    void testServicesEmitEvents() throws Exception {
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        WalletService walletService = new WalletService(walletRepository, false, new PrintStream(OutputStream.nullOutputStream()));
+        CategoryService categoryService = new CategoryService(new InMemoryCategoryRepository());
+        BudgetService budgetService = new BudgetService(walletRepository, categoryService);
+        FileStorageService storage = new FileStorageService();
+        User user = new User(LOGIN, "pw");
+        walletRepository.save(user.getWallet());
+
+        Path file = tempDir.resolve("session.jfr");
+        try (Recording recording = new Recording(FlightRecording.settings())) {
+            recording.start();
+            walletService.addIncome(user.getWallet(), Money.of(100), categoryService.getOrCreateCategory("Salary"), "pay");
+            walletService.addExpense(user.getWallet(), Money.of(20), categoryService.getOrCreateCategory("Food"), "lunch");
+            budgetService.setBudget(user, "Food", Money.of(300));
+            categoryService.updateCategory("Food", "Groceries", user.getWallet());
+            storage.exportWalletToCSV(user, tempDir.resolve("export.csv"), null, null);
+            storage.saveUserData(user);
+            storage.loadUserData(new User(LOGIN, "pw"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("financemanager."))
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+        List<RecordedEvent> writes = events.get("financemanager.WalletWrite");
+        assertEquals(2, writes.size());
+        assertEquals("addExpense", writes.get(1).getString("operation"));
+        assertEquals(LOGIN, writes.get(1).getString("login"));
+        assertEquals("Food", writes.get(1).getString("category"));
+        assertEquals(2, writes.get(1).getInt("walletSize"));
+
+        RecordedEvent budget = events.get("financemanager.Budget").getFirst();
+        assertEquals("set", budget.getString("operation"));
+        assertEquals(300.0, budget.getDouble("limit"));
+
+        RecordedEvent rename = events.get("financemanager.CategoryUpdate").getFirst();
+        assertEquals("Groceries", rename.getString("newName"));
+
+        RecordedEvent export = events.get("financemanager.Csv").getFirst();
+        assertEquals("export", export.getString("operation"));
+        assertEquals(2, export.getLong("rows"));
+        assertEquals(Files.size(tempDir.resolve("export.csv")), export.getLong("bytes"));
+
+        List<RecordedEvent> storageEvents = events.get("financemanager.Storage");
+        assertEquals(List.of("save", "load"), storageEvents.stream().map(e -> e.getString("operation")).toList());
+        assertEquals("JSON", storageEvents.get(1).getString("format"));
+        assertEquals(2, storageEvents.get(1).getLong("rows"));
+        assertEquals(storageEvents.get(0).getLong("bytes"), storageEvents.get(1).getLong("bytes"));
+    }
+
+    @Test
+    void testStartWritesRecordingToDestination() throws Exception {
+        Path file = tempDir.resolve("cli.jfr");
+        try (Recording recording = FlightRecording.start(file)) {
+            recording.stop();
+        }
+        assertTrue(Files.size(file) > 0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.daniil.financemanager.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsBoundRelativeError() {
+        long[] samples = {0, 1, 7, 8, 15, 16, 17, 100, 999, 1_000, 65_535, 1_000_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : samples) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS, "index for " + value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= value, "upper bound for " + value);
+            assertTrue(upper - value <= value / 8, "precision for " + value);
+        }
+        for (long value = 0; value < 10_000; value++) {
+            assertTrue(LatencyHistogram.bucketIndex(value) <= LatencyHistogram.bucketIndex(value + 1));
+        }
+    }
+
+    @Test
+    void testPercentilesAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMaxNanos());
+        assertEquals(500_500.0, snapshot.getMeanNanos());
+        assertEquals(500_000, snapshot.percentileNanos(50), 500_000 / 8.0);
+        assertEquals(990_000, snapshot.percentileNanos(99), 990_000 / 8.0);
+        assertEquals(1_000_000, snapshot.percentileNanos(100));
+        assertEquals(0, new LatencyHistogram().snapshot().percentileNanos(99));
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 100_000;
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                long base = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        histogram.record(base * 1_000 + i % 1_000);
+                    }
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals((long) threads * perThread, snapshot.getCount());
+        assertEquals(7_999, snapshot.getMaxNanos());
+    }
+}
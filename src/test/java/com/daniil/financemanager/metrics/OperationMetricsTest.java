@@ -0,0 +1,96 @@
+package com.daniil.financemanager.metrics;
+
+import com.daniil.financemanager.domain.model.Category;
+import com.daniil.financemanager.domain.model.Money;
+import com.daniil.financemanager.domain.model.User;
+import com.daniil.financemanager.domain.service.*;
+import com.daniil.financemanager.infrastructure.repository.InMemoryCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.InMemoryWalletRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationMetricsTest {
+    private static final String LOGIN = "metrics-user";
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (String suffix : List.of(".json", ".wallet", ".journal")) {
+            Files.deleteIfExists(Path.of("data", LOGIN + suffix));
+        }
+    }
+
+    @Test
+    void testServicesRecordOperations() {
+        OperationMetrics metrics = new OperationMetrics();
+        InMemoryWalletRepository walletRepository = new InMemoryWalletRepository();
+        WalletService walletService = new WalletService(walletRepository, false,
+                new PrintStream(OutputStream.nullOutputStream()), metrics);
+        CategoryService categoryService = new CategoryService(new InMemoryCategoryRepository(), metrics);
+        BudgetService budgetService = new BudgetService(walletRepository, categoryService, metrics);
+        FileStorageService storage = new FileStorageService(SnapshotFormat.JSON,
+                FileStorageService.DEFAULT_JOURNAL_COMPACTION_BYTES, metrics);
+
+        User user = new User(LOGIN, "pw");
+        walletRepository.save(user.getWallet());
+        Category salary = categoryService.getOrCreateCategory("Salary");
+        Category food = categoryService.getOrCreateCategory("Food");
+        walletService.addIncome(user.getWallet(), Money.of(100), salary, "pay");
+        walletService.addExpense(user.getWallet(), Money.of(10), food, "lunch");
+        walletService.addExpense(user.getWallet(), Money.of(5), food, "coffee");
+        budgetService.setBudget(user, "Food", Money.of(50));
+        storage.appendTransaction(user, user.getWallet().getTransactions().getLast());
+        storage.saveUserData(user);
+        storage.loadUserData(new User(LOGIN, "pw"));
+
+        Map<String, OperationStats> stats = metrics.snapshot().stream()
+                .collect(Collectors.toMap(OperationStats::getOperation, Function.identity()));
+        assertEquals(1, stats.get("wallet.addIncome").getCount());
+        assertEquals(2, stats.get("wallet.addExpense").getCount());
+        assertEquals(1, stats.get("budget.set").getCount());
+        assertEquals(1, stats.get("storage.journalAppend").getCount());
+        assertTrue(stats.get("storage.journalAppend").getBytesWritten() > 0);
+        assertFalse(stats.containsKey("wallet.totals"), "internal totals checks are not counted as calls");
+
+        OperationStats save = stats.get("storage.save");
+        OperationStats load = stats.get("storage.load");
+        assertEquals(3, save.getRows());
+        assertEquals(3, load.getRows());
+        assertEquals(save.getBytesWritten(), load.getBytesRead());
+        assertTrue(save.getMaxNanos() >= save.getP50Nanos());
+    }
+
+    @Test
+    void testJsonDumpListsRecordedOperations() throws Exception {
+        OperationMetrics metrics = new OperationMetrics();
+        metrics.record(Operation.CSV_IMPORT, System.nanoTime() - 2_000_000, 10, 4_096, 0);
+        metrics.record(Operation.WALLET_TOTALS, System.nanoTime());
+
+        StringWriter json = new StringWriter();
+        metrics.writeJson(json);
+
+        JsonNode operations = new ObjectMapper().readTree(json.toString()).get("operations");
+        assertEquals(2, operations.size());
+        JsonNode csvImport = operations.get(1);
+        assertEquals("csv.import", csvImport.get("operation").asText());
+        assertEquals(1, csvImport.get("count").asLong());
+        assertEquals(10, csvImport.get("rows").asLong());
+        assertEquals(4_096, csvImport.get("bytesRead").asLong());
+        assertTrue(csvImport.get("maxNanos").asLong() >= 2_000_000);
+
+        assertEquals(3, metrics.format().size());
+    }
+}
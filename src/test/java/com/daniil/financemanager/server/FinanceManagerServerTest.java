@@ -0,0 +1,135 @@
+package com.daniil.financemanager.server;
+
+import com.daniil.financemanager.domain.service.*;
+import com.daniil.financemanager.infrastructure.repository.ConcurrentCategoryRepository;
+import com.daniil.financemanager.infrastructure.repository.ConcurrentUserRepository;
+import com.daniil.financemanager.infrastructure.repository.ConcurrentWalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinanceManagerServerTest {
+    private static final List<String> LOGINS = List.of("server-alice", "server-bob", "server-load");
+
+    private FinanceManagerServer server;
+    private SocketAddress address;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        deleteUserFiles();
+        ConcurrentWalletRepository walletRepository = new ConcurrentWalletRepository();
+        CategoryService categoryService = new CategoryService(new ConcurrentCategoryRepository());
+        server = new FinanceManagerServer(
+                new UserService(new ConcurrentUserRepository(), walletRepository),
+                new WalletService(walletRepository, false, new PrintStream(OutputStream.nullOutputStream())),
+                new BudgetService(walletRepository, categoryService),
+                categoryService,
+                new FileStorageService(),
+                FinanceManagerServer.parseAddress("tcp:0"));
+        address = server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+        deleteUserFiles();
+    }
+
+    private static void deleteUserFiles() throws Exception {
+        for (String login : LOGINS) {
+            for (String suffix : List.of(".json", ".wallet", ".journal")) {
+                Files.deleteIfExists(Path.of("data", login + suffix));
+            }
+        }
+    }
+
+    @Test
+    void testSessionCommands() throws Exception {
+        try (FinanceManagerClient client = new FinanceManagerClient(address)) {
+            assertThrows(IllegalStateException.class, () -> client.send("show_balance"));
+            client.send("signup server-alice secret");
+            assertThrows(IllegalStateException.class, () -> client.send("login server-alice wrong"));
+            client.send("login server-alice secret");
+
+            client.send("add_income 1000 Salary \"March pay\"");
+            client.send("add_expense 120.5 Food dinner with friends");
+            client.send("set_budget Food 500");
+
+            assertEquals(List.of("income 1000.00", "expense 120.50", "balance 879.50"), client.send("show_balance"));
+            assertEquals(List.of("Food\t500.00\t120.50\t379.50\tlifetime"), client.send("show_budget"));
+
+            List<String> transactions = client.send("show_transactions");
+            assertEquals(2, transactions.size());
+            assertTrue(transactions.get(0).startsWith("INCOME\tSalary\t1000.00\tMarch pay\t"));
+            assertTrue(transactions.get(1).startsWith("EXPENSE\tFood\t120.50\tdinner with friends\t"));
+
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> client.send("fly"));
+            assertEquals("Unknown command: fly", error.getMessage());
+            client.send("quit");
+        }
+    }
+
+    @Test
+    void testSessionsKeepTheirOwnUser() throws Exception {
+        try (FinanceManagerClient alice = new FinanceManagerClient(address);
+             FinanceManagerClient bob = new FinanceManagerClient(address)) {
+            alice.send("signup server-alice a");
+            bob.send("signup server-bob b");
+            alice.send("login server-alice a");
+            bob.send("login server-bob b");
+
+            alice.send("add_income 10 Gift");
+            bob.send("add_income 20 Gift");
+
+            assertEquals("balance 10.00", alice.send("show_balance").get(2));
+            assertEquals("balance 20.00", bob.send("show_balance").get(2));
+        }
+    }
+
+    @Test
+    void testConcurrentSessionsOfOneUserKeepExactBalance() throws Exception {
+        try (FinanceManagerClient setup = new FinanceManagerClient(address)) {
+            setup.send("signup server-load pw");
+        }
+
+        int clients = 8;
+        int requests = 50;
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    try (FinanceManagerClient client = new FinanceManagerClient(address)) {
+                        client.send("login server-load pw");
+                        for (int i = 0; i < requests; i++) {
+                            client.send("add_income 3 Salary");
+                            client.send("add_expense 1 Food");
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        try (FinanceManagerClient client = new FinanceManagerClient(address)) {
+            client.send("login server-load pw");
+            assertEquals(List.of("income 1200.00", "expense 400.00", "balance 800.00"), client.send("show_balance"));
+            assertEquals(2 * clients * requests, client.send("show_transactions").size());
+        }
+    }
+}